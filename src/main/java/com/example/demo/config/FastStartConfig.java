@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import com.example.demo.service.OrderTaskWorkerPool;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+@Profile("faststart")
+public class FastStartConfig {
+
+    // Фоновые воркеры должны стартовать сразу, а не при первом обращении
+    @Bean
+    static LazyInitializationExcludeFilter eagerBackgroundBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(OrderTaskWorkerPool.class);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+@Configuration
+@Profile("l2cache")
+public class L2CacheConfig {
+
+    /**
+     * Кэш второго уровня и кэш запросов живут в памяти одного процесса: изменения клиента
+     * на другом узле их не инвалидируют (статус — до TTL кэша запросов, email — до TTL natural-id).
+     * Поэтому с профилем shared старт запрещён, если провайдер не кластерный (app.cache.clustered).
+     * Проверка в BeanFactoryPostProcessor срабатывает и при ленивой инициализации (faststart).
+     */
+    @Bean
+    static BeanFactoryPostProcessor l2cacheRequiresSingleInstance() {
+        return beanFactory -> {
+            Environment env = beanFactory.getBean(Environment.class);
+            boolean clustered = env.getProperty("app.cache.clustered", Boolean.class, false);
+            if (env.acceptsProfiles(Profiles.of("shared")) && !clustered) {
+                throw new IllegalStateException("Profile l2cache uses a per-JVM cache and cannot be combined with "
+                        + "the multi-instance profile shared; set app.cache.clustered=true only for a clustered "
+                        + "or invalidating cache provider");
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Отправляет соединения транзакций {@code readOnly = true} в пул чтения,
+ * всё остальное — в пул записи.
+ * Должен оборачиваться в LazyConnectionDataSourceProxy, иначе соединение
+ * берётся до того, как флаг readOnly выставлен в текущей транзакции.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        WRITE, READ
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Замер старта в профиле faststart: время до готовности контекста и
+ * до первого успешного POST /api/orders, плюс RSS процесса в эти моменты.
+ */
+@Slf4j
+@Component
+@Profile("faststart")
+public class StartupReport extends OncePerRequestFilter {
+
+    private final AtomicBoolean firstOrderReported = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        log.info("Startup: ready after {} ms, RSS {} MB", uptimeMillis(), rssMegabytes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return firstOrderReported.get()
+                || !"POST".equals(request.getMethod())
+                || !"/api/orders".equals(request.getRequestURI());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        chain.doFilter(request, response);
+        if (!isAsyncStarted(request)
+                && response.getStatus() == HttpStatus.CREATED.value() && firstOrderReported.compareAndSet(false, true)) {
+            log.info("Startup: first order created after {} ms, RSS {} MB", uptimeMillis(), rssMegabytes());
+        }
+    }
+
+    private static long uptimeMillis() {
+        return ManagementFactory.getRuntimeMXBean().getUptime();
+    }
+
+    private static long rssMegabytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D+", "")) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // не Linux — RSS недоступен
+        }
+        return -1;
+    }
+}
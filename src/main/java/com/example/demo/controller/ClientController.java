@@ -1,5 +1,7 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.BulkClientStatusRequest;
+import com.example.demo.dto.BulkClientStatusResultDto;
 import com.example.demo.dto.ClientDto;
 import com.example.demo.dto.ClientProfitDto;
 import com.example.demo.dto.ClientStatusRequest;
@@ -8,11 +10,17 @@ import com.example.demo.dto.OrderDto;
 import com.example.demo.dto.UpdateClientRequest;
 import com.example.demo.service.ClientService;
 import com.example.demo.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -25,6 +33,7 @@ public class ClientController {
 
     private final ClientService clientService;
     private final OrderService orderService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
@@ -33,12 +42,23 @@ public class ClientController {
     }
 
     @GetMapping("/{id}")
-    public ClientDto getById(@PathVariable Long id) {
-        return clientService.getById(id);
+    public ResponseEntity<ClientDto> getById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = clientService.getETag(id);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ClientDto dto = clientService.getById(id);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(dto);
     }
 
-    @GetMapping
-    public List<ClientDto> list(@RequestParam(value = "query", required = false) String query) {
+    // Все клиенты потоково; поиск (?query=) — отдельный обработчик со списком
+    @GetMapping(params = "!query")
+    public ResponseEntity<StreamingResponseBody> list() {
+        return JsonArrayStream.<ClientDto>of(objectMapper, clientService::streamAll);
+    }
+
+    @GetMapping(params = "query")
+    public List<ClientDto> search(@RequestParam("query") @NotBlank String query) {
         return clientService.listAllOrSearch(query);
     }
 
@@ -54,14 +74,25 @@ public class ClientController {
         return clientService.updateActiveStatus(id, req.getActive());
     }
 
+    @PatchMapping("/status")
+    public BulkClientStatusResultDto updateStatusBulk(@Valid @RequestBody BulkClientStatusRequest req) {
+        return clientService.updateActiveStatusBulk(req);
+    }
+
+    // История клиента (горячие и архивные заказы) потоково, без сборки списка в памяти
     @GetMapping("/{id}/orders")
-    public List<OrderDto> ordersOfClient(@PathVariable Long id) {
-        return orderService.listByClient(id);
+    public ResponseEntity<StreamingResponseBody> ordersOfClient(@PathVariable Long id) {
+        return JsonArrayStream.<OrderDto>of(objectMapper, sink -> orderService.streamAll(id, sink));
     }
 
     @GetMapping("/{id}/profit")
-    public ClientProfitDto profit(@PathVariable Long id) {
-        return clientService.getProfit(id);
+    public ResponseEntity<ClientProfitDto> profit(@PathVariable Long id, WebRequest webRequest) {
+        String etag = clientService.getProfitETag(id);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        ClientProfitDto dto = clientService.getProfit(id);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(dto);
     }
 
     @GetMapping("/profit-range")
@@ -0,0 +1,39 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.CacheStatsDto;
+import com.example.demo.dto.CoalescingStatsDto;
+import com.example.demo.dto.OptimisticRetryStatsDto;
+import com.example.demo.service.CacheStatistics;
+import com.example.demo.service.OptimisticRetryExecutor;
+import com.example.demo.service.RequestCoalescer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final RequestCoalescer requestCoalescer;
+    private final CacheStatistics cacheStatistics;
+
+    @GetMapping("/optimistic-retries")
+    public List<OptimisticRetryStatsDto> optimisticRetries() {
+        return optimisticRetryExecutor.snapshot();
+    }
+
+    @GetMapping("/coalescing")
+    public List<CoalescingStatsDto> coalescing() {
+        return requestCoalescer.snapshot();
+    }
+
+    @GetMapping("/cache")
+    public CacheStatsDto cache() {
+        return cacheStatistics.snapshot();
+    }
+}
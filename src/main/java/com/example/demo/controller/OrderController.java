@@ -1,16 +1,34 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ArchiveResultDto;
 import com.example.demo.dto.CreateOrderRequest;
 import com.example.demo.dto.OrderDto;
+import com.example.demo.dto.OrderImportResultDto;
+import com.example.demo.dto.OrderTaskDto;
 import com.example.demo.dto.UpdateOrderRequest;
+import com.example.demo.service.OrderArchiver;
+import com.example.demo.service.OrderExportService;
 import com.example.demo.service.OrderService;
+import com.example.demo.service.OrderTaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.InputStream;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -19,21 +37,93 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderExportService orderExportService;
+    private final OrderTaskService orderTaskService;
+    private final OrderArchiver orderArchiver;
+    private final ObjectMapper objectMapper;
 
+    // Поток запроса освобождается на время обработки заказа; ответ отправляется после commit-фазы.
+    // По таймауту (spring.mvc.async.request-timeout) ожидающий заказ отменяется и не создаётся (503);
+    // если commit-фаза уже началась, ответом будет её результат
     @PostMapping
-    @ResponseStatus(HttpStatus.CREATED)
-    public OrderDto create(@Valid @RequestBody CreateOrderRequest request) {
-        return orderService.create(request);
+    public DeferredResult<ResponseEntity<OrderDto>> create(@Valid @RequestBody CreateOrderRequest request) {
+        DeferredResult<ResponseEntity<OrderDto>> response = new DeferredResult<>();
+        CompletableFuture<OrderDto> order = orderService.createAsync(request);
+        response.onTimeout(() -> {
+            if (order.cancel(false)) {
+                response.setErrorResult(new AsyncRequestTimeoutException());
+                return;
+            }
+            try {
+                response.setResult(created(order.join()));
+            } catch (CancellationException e) {
+                // Commit-фаза не создала заказ (ложное пробуждение) и уступила отмене
+                response.setErrorResult(new AsyncRequestTimeoutException());
+            } catch (CompletionException e) {
+                response.setErrorResult(e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        order.whenComplete((created, error) -> {
+            if (error == null) {
+                response.setResult(created(created));
+            } else if (!(error instanceof CancellationException)) {
+                response.setErrorResult(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        });
+        return response;
+    }
+
+    private static ResponseEntity<OrderDto> created(OrderDto order) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    }
+
+    @PostMapping("/async")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public OrderTaskDto submit(@Valid @RequestBody CreateOrderRequest request) {
+        return orderTaskService.submit(request);
+    }
+
+    @GetMapping("/tasks/{id}")
+    public OrderTaskDto task(@PathVariable Long id) {
+        return orderTaskService.getById(id);
+    }
+
+    // Внеплановый прогон архивации (не зависит от app.orders.archive.enabled)
+    @PostMapping("/archive")
+    public ArchiveResultDto archive() {
+        return orderArchiver.archive();
     }
 
     @GetMapping("/{id}")
-    public OrderDto getById(@PathVariable Long id) {
-        return orderService.getById(id);
+    public ResponseEntity<OrderDto> getById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = orderService.getETag(id);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        OrderDto dto = orderService.getById(id);
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).eTag(etag).body(dto);
     }
 
     @GetMapping
-    public List<OrderDto> list(@RequestParam(value = "clientId", required = false) Long clientId) {
-        return (clientId == null) ? orderService.listAll() : orderService.listByClient(clientId);
+    public ResponseEntity<StreamingResponseBody> list(@RequestParam(value = "clientId", required = false) Long clientId) {
+        return JsonArrayStream.<OrderDto>of(objectMapper, sink -> orderService.streamAll(clientId, sink));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(value = "compression", defaultValue = "none") String compression) {
+        OrderExportService.Compression c = OrderExportService.Compression.parse(compression);
+        String fileName = c == OrderExportService.Compression.GZIP ? "orders.ords.gz" : "orders.ords";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(out -> orderExportService.exportOrders(out, c));
+    }
+
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "application/gzip"})
+    public OrderImportResultDto importSnapshot(InputStream body) {
+        return orderExportService.importOrders(body);
     }
 
     @PutMapping("/{id}")
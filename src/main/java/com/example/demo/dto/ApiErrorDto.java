@@ -0,0 +1,17 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.Instant;
+
+/**
+ * Неизменяемое тело ответа об ошибке с фиксированным набором полей.
+ */
+@JsonPropertyOrder({"timestamp", "status", "error", "code", "message", "path"})
+public record ApiErrorDto(Instant timestamp,
+                          int status,
+                          String error,
+                          String code,
+                          String message,
+                          String path) {
+}
@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkClientStatusRequest {
+
+    // Либо список id, либо поисковый запрос (как в GET /api/clients?query=)
+    private List<Long> ids;
+
+    private String query;
+
+    @NotNull(message = "Field 'active' must be provided")
+    private Boolean active;
+}
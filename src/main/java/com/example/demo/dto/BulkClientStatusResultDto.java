@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BulkClientStatusResultDto {
+    private boolean active;
+    private int requested;
+    private int updated;
+    private int unchanged;
+    private int notFound;
+    private int chunks;
+    private long elapsedMillis;
+    private List<BulkClientStatusItemDto> results;
+}
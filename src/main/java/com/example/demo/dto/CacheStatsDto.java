@@ -0,0 +1,26 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CacheStatsDto {
+    private boolean statisticsEnabled;
+    private long entityLoads;
+    private long entityFetches;
+    private long queryExecutions;
+    private long queryCacheHits;
+    private long queryCacheMisses;
+    private long naturalIdCacheHits;
+    private long naturalIdCacheMisses;
+    private List<CacheRegionStatsDto> regions;
+}
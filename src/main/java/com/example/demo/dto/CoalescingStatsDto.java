@@ -0,0 +1,21 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CoalescingStatsDto {
+    private String operation;
+    private long calls;
+    private long executions;
+    private long coalesced;
+    private long failures;
+    private long inFlight;
+}
@@ -0,0 +1,24 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InvariantReportDto {
+    private boolean ok;
+    private long checkedOrders;
+    private long checkedClients;
+    private long elapsedMillis;
+    private Map<String, Long> violationCounts;
+    private List<InvariantViolationDto> violations;
+}
@@ -0,0 +1,29 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LoadScenarioResultDto {
+    private String scenario;
+    private Map<String, Object> parameters;
+    private int instances;
+    private Instant startedAt;
+    private long elapsedMillis;
+    private long operations;
+    private double throughputPerSec;
+    private List<OperationStatsDto> operationStats;
+    private List<ResourceSampleDto> samples;
+    private InvariantReportDto verification;
+}
@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.OrderTaskStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTaskDto {
+    private Long id;
+    private OrderTaskStatus status;
+    private String title;
+    private Long supplierId;
+    private Long consumerId;
+    private BigDecimal price;
+    private int attempts;
+    private Long orderId;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
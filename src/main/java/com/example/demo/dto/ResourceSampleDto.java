@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ResourceSampleDto {
+    private long elapsedMillis;
+    private long operations;
+    private long heapUsedMb;
+    private long heapCommittedMb;
+    private long gcCount;
+    private long gcTimeMillis;
+    private int threads;
+}
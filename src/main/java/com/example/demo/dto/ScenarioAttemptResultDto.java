@@ -17,4 +17,5 @@ public class ScenarioAttemptResultDto {
     private Integer httpStatus;
     private String message;
     private Long orderId;
+    private Long elapsedMillis;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.example.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScenarioRunDto {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private String id;
+    private String scenario;
+    private Status status;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String resultFile;
+    private String error;
+    private LoadScenarioResultDto result;
+}
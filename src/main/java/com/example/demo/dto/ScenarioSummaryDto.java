@@ -14,5 +14,8 @@ public class ScenarioSummaryDto {
     private int requested;
     private int succeeded;
     private int failed;
+    private int instances;
+    private long elapsedMillis;
     private List<ScenarioAttemptResultDto> attempts;
+    private InvariantReportDto verification;
 }
\ No newline at end of file
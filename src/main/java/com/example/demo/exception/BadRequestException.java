@@ -1,12 +1,16 @@
 package com.example.demo.exception;
 
-public class BadRequestException extends RuntimeException {
+public class BadRequestException extends DomainException {
 
     public BadRequestException(String message) {
-        super(message);
+        super(ErrorCode.BAD_REQUEST, message);
+    }
+
+    public BadRequestException(ErrorCode code, String message) {
+        super(code, message);
     }
 
     public BadRequestException(String message, Throwable cause) {
-        super(message, cause);
+        super(ErrorCode.BAD_REQUEST, message, cause);
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,29 @@
 package com.example.demo.exception;
 
-public class ConflictException extends RuntimeException {
+public class ConflictException extends DomainException {
     private static final long serialVersionUID = 1L;
 
     public ConflictException() {
-        super();
+        super(ErrorCode.CONFLICT, null);
     }
 
     public ConflictException(String message) {
-        super(message);
+        super(ErrorCode.CONFLICT, message);
+    }
+
+    public ConflictException(ErrorCode code, String message) {
+        super(code, message);
     }
 
     public ConflictException(String message, Throwable cause) {
-        super(message, cause);
+        super(ErrorCode.CONFLICT, message, cause);
+    }
+
+    public ConflictException(ErrorCode code, String message, Throwable cause) {
+        super(code, message, cause);
     }
 
     public ConflictException(Throwable cause) {
-        super(cause);
+        super(ErrorCode.CONFLICT, cause == null ? null : cause.toString(), cause);
     }
-}
\ No newline at end of file
+}
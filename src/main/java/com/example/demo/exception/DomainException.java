@@ -0,0 +1,26 @@
+package com.example.demo.exception;
+
+/**
+ * Базовое исключение бизнес-отказов. Без причины стек не заполняется:
+ * отказы (дубликаты, лимит, неактивный клиент) — штатный путь под нагрузкой,
+ * и стек для них не нужен.
+ */
+public abstract class DomainException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final ErrorCode code;
+
+    protected DomainException(ErrorCode code, String message) {
+        super(message, null, false, false);
+        this.code = code;
+    }
+
+    protected DomainException(ErrorCode code, String message, Throwable cause) {
+        super(message, cause);
+        this.code = code;
+    }
+
+    public ErrorCode getCode() {
+        return code;
+    }
+}
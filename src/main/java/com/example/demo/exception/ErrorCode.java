@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+/**
+ * Машиночитаемый код ошибки в теле ответа и в событиях запроса.
+ */
+public enum ErrorCode {
+    BAD_REQUEST,
+    VALIDATION_FAILED,
+    MALFORMED_REQUEST,
+    NOT_FOUND,
+    CONFLICT,
+    DUPLICATE_ORDER,
+    DUPLICATE_EMAIL,
+    CREDIT_LIMIT_EXCEEDED,
+    CLIENT_INACTIVE,
+    CONCURRENT_MODIFICATION,
+    DATA_INTEGRITY,
+    PROCESSING_TIMEOUT,
+    INTERNAL_ERROR
+}
@@ -1,5 +1,7 @@
 package com.example.demo.exception;
 
+import com.example.demo.dto.ApiErrorDto;
+import com.example.demo.logging.RequestStages;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
@@ -13,117 +15,121 @@ import org.springframework.web.bind.MethodArgumentNotValidException;           /
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
-import java.time.OffsetDateTime;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.time.Instant;
 import java.util.stream.Collectors;
 
 @Slf4j
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
-    private ResponseEntity<Map<String, Object>> build(HttpStatus status, String message, String path) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", OffsetDateTime.now().toString());
-        body.put("status", status.value());
-        body.put("error", status.getReasonPhrase());
-        body.put("message", message);
-        body.put("path", path);
+    private ResponseEntity<ApiErrorDto> build(HttpStatus status, ErrorCode code, String message, String path) {
+        RequestStages.reject(code.name());
+        ApiErrorDto body = new ApiErrorDto(Instant.now(), status.value(), status.getReasonPhrase(),
+                code.name(), message, path);
         return ResponseEntity.status(status).body(body);
     }
 
     @ExceptionHandler(NotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleNotFound(NotFoundException ex, HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleNotFound(NotFoundException ex, HttpServletRequest req) {
         log.debug("NotFound: {}", ex.getMessage());
-        return build(HttpStatus.NOT_FOUND, ex.getMessage(), req.getRequestURI());
+        return build(HttpStatus.NOT_FOUND, ex.getCode(), ex.getMessage(), req.getRequestURI());
     }
 
     @ExceptionHandler(BadRequestException.class)
-    public ResponseEntity<Map<String, Object>> handleBadRequest(BadRequestException ex, HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleBadRequest(BadRequestException ex, HttpServletRequest req) {
         log.debug("BadRequest: {}", ex.getMessage());
-        return build(HttpStatus.BAD_REQUEST, ex.getMessage(), req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ex.getCode(), ex.getMessage(), req.getRequestURI());
     }
 
     @ExceptionHandler(ConflictException.class)
-    public ResponseEntity<Map<String, Object>> handleConflict(ConflictException ex, HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleConflict(ConflictException ex, HttpServletRequest req) {
         log.debug("Conflict: {}", ex.getMessage());
-        return build(HttpStatus.CONFLICT, ex.getMessage(), req.getRequestURI());
+        return build(HttpStatus.CONFLICT, ex.getCode(), ex.getMessage(), req.getRequestURI());
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
-                                                                            HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleMethodArgumentNotValid(MethodArgumentNotValidException ex,
+                                                                    HttpServletRequest req) {
         String msg = ex.getBindingResult().getFieldErrors().stream()
                 .map(e -> e.getField() + " " + e.getDefaultMessage())
                 .collect(Collectors.joining("; "));
         if (msg.isBlank()) msg = "Validation error";
         log.debug("Validation error: {}", msg);
-        return build(HttpStatus.BAD_REQUEST, msg, req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ErrorCode.VALIDATION_FAILED, msg, req.getRequestURI());
     }
 
     @ExceptionHandler(BindException.class)
-    public ResponseEntity<Map<String, Object>> handleBindException(BindException ex, HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleBindException(BindException ex, HttpServletRequest req) {
         String msg = ex.getBindingResult().getFieldErrors().stream()
                 .map(e -> e.getField() + " " + e.getDefaultMessage())
                 .collect(Collectors.joining("; "));
         if (msg.isBlank()) msg = "Validation error";
         log.debug("Bind validation error: {}", msg);
-        return build(HttpStatus.BAD_REQUEST, msg, req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ErrorCode.VALIDATION_FAILED, msg, req.getRequestURI());
     }
 
     @ExceptionHandler(ConstraintViolationException.class)
-    public ResponseEntity<Map<String, Object>> handleConstraintViolation(ConstraintViolationException ex,
-                                                                         HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleConstraintViolation(ConstraintViolationException ex,
+                                                                 HttpServletRequest req) {
         String msg = ex.getConstraintViolations().stream()
                 .map(ConstraintViolation::getMessage)
                 .collect(Collectors.joining("; "));
         if (msg.isBlank()) msg = "Constraint violation";
         log.debug("Constraint violation: {}", msg);
-        return build(HttpStatus.BAD_REQUEST, msg, req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ErrorCode.VALIDATION_FAILED, msg, req.getRequestURI());
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
-    public ResponseEntity<Map<String, Object>> handleNotReadable(HttpMessageNotReadableException ex,
-                                                                 HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleNotReadable(HttpMessageNotReadableException ex,
+                                                         HttpServletRequest req) {
         String msg = ex.getMostSpecificCause() != null
                 ? ex.getMostSpecificCause().getMessage()
                 : "Malformed JSON request";
         log.debug("Not readable JSON: {}", msg);
-        return build(HttpStatus.BAD_REQUEST, msg, req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ErrorCode.MALFORMED_REQUEST, msg, req.getRequestURI());
     }
 
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<Map<String, Object>> handleTypeMismatch(MethodArgumentTypeMismatchException ex,
-                                                                  HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleTypeMismatch(MethodArgumentTypeMismatchException ex,
+                                                          HttpServletRequest req) {
         String required = ex.getRequiredType() != null ? ex.getRequiredType().getSimpleName() : "required type";
         String msg = "Parameter '" + ex.getName() + "' should be of type " + required;
         log.debug("Type mismatch: {}", msg);
-        return build(HttpStatus.BAD_REQUEST, msg, req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ErrorCode.MALFORMED_REQUEST, msg, req.getRequestURI());
     }
 
     @ExceptionHandler(MissingServletRequestParameterException.class)
-    public ResponseEntity<Map<String, Object>> handleMissingParam(MissingServletRequestParameterException ex,
-                                                                  HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleMissingParam(MissingServletRequestParameterException ex,
+                                                          HttpServletRequest req) {
         String msg = "Missing required parameter: " + ex.getParameterName();
         log.debug("Missing parameter: {}", msg);
-        return build(HttpStatus.BAD_REQUEST, msg, req.getRequestURI());
+        return build(HttpStatus.BAD_REQUEST, ErrorCode.MALFORMED_REQUEST, msg, req.getRequestURI());
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
-    public ResponseEntity<Map<String, Object>> handleDataIntegrity(DataIntegrityViolationException ex,
-                                                                   HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleDataIntegrity(DataIntegrityViolationException ex,
+                                                           HttpServletRequest req) {
         String msg = ex.getMostSpecificCause() != null
                 ? ex.getMostSpecificCause().getMessage()
                 : "Data integrity violation";
         log.debug("DataIntegrityViolation: {}", msg);
-        return build(HttpStatus.CONFLICT, "Constraint violation: " + msg, req.getRequestURI());
+        return build(HttpStatus.CONFLICT, ErrorCode.DATA_INTEGRITY, "Constraint violation: " + msg, req.getRequestURI());
+    }
+
+    // Заказ не дождался окончания обработки за spring.mvc.async.request-timeout и отменён
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ApiErrorDto> handleAsyncTimeout(AsyncRequestTimeoutException ex, HttpServletRequest req) {
+        log.debug("Async request timed out: {}", req.getRequestURI());
+        return build(HttpStatus.SERVICE_UNAVAILABLE, ErrorCode.PROCESSING_TIMEOUT,
+                "Request timed out before processing finished", req.getRequestURI());
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex, HttpServletRequest req) {
+    public ResponseEntity<ApiErrorDto> handleGeneric(Exception ex, HttpServletRequest req) {
         log.error("Unexpected error: {}", ex.getMessage(), ex);
-        return build(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error: " + ex.getMessage(), req.getRequestURI());
+        return build(HttpStatus.INTERNAL_SERVER_ERROR, ErrorCode.INTERNAL_ERROR, "Unexpected error: " + ex.getMessage(), req.getRequestURI());
     }
 }
\ No newline at end of file
@@ -4,18 +4,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(HttpStatus.NOT_FOUND)
-public class NotFoundException extends RuntimeException {
+public class NotFoundException extends DomainException {
     private static final long serialVersionUID = 1L;
 
     public NotFoundException() {
-        super("Resource not found");
+        super(ErrorCode.NOT_FOUND, "Resource not found");
     }
 
     public NotFoundException(String message) {
-        super(message);
+        super(ErrorCode.NOT_FOUND, message);
     }
 
     public NotFoundException(String message, Throwable cause) {
-        super(message, cause);
+        super(ErrorCode.NOT_FOUND, message, cause);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.example.demo.logging;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Одно структурное JSON-событие на запрос: метод, путь, статус, длительность,
+ * этапы обработки и причина отказа. Отказы 4xx (дубликаты, кредитный лимит и т.п.)
+ * сэмплируются: пишется каждое N-е событие с указанием rate.
+ * Пишет в логгер {@code request-events}; в профиле prod-logging он асинхронный.
+ */
+@Component
+@ConditionalOnProperty(name = "app.logging.request-events.enabled", havingValue = "true")
+public class RequestEventFilter extends OncePerRequestFilter {
+
+    private static final Logger events = LoggerFactory.getLogger("request-events");
+    private static final String START_ATTR = RequestEventFilter.class.getName() + ".start";
+
+    private final int rejectionSampleRate;
+    private final AtomicLong rejectionCounter = new AtomicLong();
+
+    public RequestEventFilter(@Value("${app.logging.request-events.rejection-sample-rate:100}") int rejectionSampleRate) {
+        this.rejectionSampleRate = Math.max(1, rejectionSampleRate);
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (request.getAttribute(START_ATTR) == null) {
+            long now = System.nanoTime();
+            request.setAttribute(START_ATTR, now);
+            request.setAttribute(RequestStages.LAST_MARK_ATTR, now);
+            request.setAttribute(RequestStages.STAGES_ATTR, RequestStages.newStages());
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (!isAsyncStarted(request) && events.isInfoEnabled()) {
+                emit(request, response);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void emit(HttpServletRequest request, HttpServletResponse response) {
+        int status = response.getStatus();
+        int rate = 1;
+        if (status >= 400 && status < 500) {
+            rate = rejectionSampleRate;
+            if (rejectionCounter.getAndIncrement() % rate != 0) {
+                return;
+            }
+        }
+
+        long start = (Long) request.getAttribute(START_ATTR);
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"method\":\"").append(request.getMethod())
+                .append("\",\"path\":");
+        appendString(sb, request.getRequestURI());
+        sb.append(",\"status\":").append(status)
+                .append(",\"durationUs\":").append((System.nanoTime() - start) / 1_000);
+
+        Object stages = request.getAttribute(RequestStages.STAGES_ATTR);
+        if (stages instanceof Map<?, ?> map) {
+            synchronized (map) {
+                if (!map.isEmpty()) {
+                    sb.append(",\"stagesUs\":{");
+                    boolean first = true;
+                    for (Map.Entry<String, Long> e : ((Map<String, Long>) map).entrySet()) {
+                        if (!first) sb.append(',');
+                        appendString(sb, e.getKey());
+                        sb.append(':').append(e.getValue());
+                        first = false;
+                    }
+                    sb.append('}');
+                }
+            }
+        }
+
+        Object rejection = request.getAttribute(RequestStages.REJECTION_ATTR);
+        if (rejection != null) {
+            sb.append(",\"rejection\":");
+            appendString(sb, rejection.toString());
+        }
+        if (rate > 1) {
+            sb.append(",\"sampleRate\":").append(rate);
+        }
+        sb.append('}');
+        events.info(sb.toString());
+    }
+
+    private static void appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
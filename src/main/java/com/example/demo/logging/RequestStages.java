@@ -0,0 +1,117 @@
+package com.example.demo.logging;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Отметки этапов обработки и причина отказа для структурного события запроса.
+ * Вне HTTP-потока (воркеры, таймеры) вызовы ничего не делают, если этапы запроса
+ * не переданы в поток через {@link #detach()} и {@link #resume(Recorder)}.
+ */
+public final class RequestStages {
+
+    static final String STAGES_ATTR = RequestStages.class.getName() + ".stages";
+    static final String LAST_MARK_ATTR = RequestStages.class.getName() + ".lastMark";
+    static final String REJECTION_ATTR = RequestStages.class.getName() + ".rejection";
+
+    private static final ThreadLocal<Recorder> RESUMED = new ThreadLocal<>();
+
+    private RequestStages() {
+    }
+
+    /**
+     * Этапы одного запроса, продолжающегося в другом потоке (commit-фаза асинхронного заказа).
+     * Пишет в тот же объект этапов, что и HTTP-поток; событие выводится на async dispatch.
+     */
+    public static final class Recorder {
+        private static final Recorder NONE = new Recorder(null, 0);
+
+        private final Map<String, Long> stages;
+        private long lastMark;
+
+        private Recorder(Map<String, Long> stages, long lastMark) {
+            this.stages = stages;
+            this.lastMark = lastMark;
+        }
+
+        private void mark(String stage) {
+            if (stages == null) {
+                return;
+            }
+            long now = System.nanoTime();
+            stages.put(stage, (now - lastMark) / 1_000);
+            lastMark = now;
+        }
+    }
+
+    /**
+     * Поток, в котором {@link #mark(String)} пишет в этапы переданного запроса; закрыть по завершении.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Забирает этапы текущего запроса для продолжения в другом потоке.
+     * Дальнейшие отметки делаются только через возвращённый Recorder.
+     */
+    @SuppressWarnings("unchecked")
+    public static Recorder detach() {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs == null) {
+            return Recorder.NONE;
+        }
+        Object stages = attrs.getAttribute(STAGES_ATTR, RequestAttributes.SCOPE_REQUEST);
+        Object last = attrs.getAttribute(LAST_MARK_ATTR, RequestAttributes.SCOPE_REQUEST);
+        if (!(stages instanceof Map) || !(last instanceof Long lastMark)) {
+            return Recorder.NONE;
+        }
+        return new Recorder((Map<String, Long>) stages, lastMark);
+    }
+
+    public static Scope resume(Recorder recorder) {
+        RESUMED.set(recorder);
+        return RESUMED::remove;
+    }
+
+    /**
+     * Записывает длительность этапа, завершившегося сейчас (от предыдущей отметки).
+     */
+    @SuppressWarnings("unchecked")
+    public static void mark(String stage) {
+        Recorder resumed = RESUMED.get();
+        if (resumed != null) {
+            resumed.mark(stage);
+            return;
+        }
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs == null) {
+            return;
+        }
+        Object stages = attrs.getAttribute(STAGES_ATTR, RequestAttributes.SCOPE_REQUEST);
+        Object last = attrs.getAttribute(LAST_MARK_ATTR, RequestAttributes.SCOPE_REQUEST);
+        if (!(stages instanceof Map) || !(last instanceof Long lastMark)) {
+            return;
+        }
+        long now = System.nanoTime();
+        ((Map<String, Long>) stages).put(stage, (now - lastMark) / 1_000);
+        attrs.setAttribute(LAST_MARK_ATTR, now, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public static void reject(String reason) {
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs != null) {
+            attrs.setAttribute(REJECTION_ATTR, reason, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    // Этапы могут дописываться из потока commit-фазы, пока событие уже выводится (таймаут запроса)
+    static Map<String, Long> newStages() {
+        return Collections.synchronizedMap(new LinkedHashMap<>());
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Заказ, перенесённый из горячей таблицы orders архивацией. Сохраняет исходный id;
+ * его сумма уже учтена в {@link Client#getArchivedBalance()} обоих клиентов,
+ * поэтому архивные заказы только читаются.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Immutable
+@Table(
+        name = "orders_archive",
+        uniqueConstraints = {
+                @UniqueConstraint(
+                        name = "uk_order_archive_business_key",
+                        columnNames = {"title_key", "supplier_id", "consumer_id"}
+                )
+        },
+        indexes = {
+                @Index(name = "idx_order_archive_supplier", columnList = "supplier_id"),
+                @Index(name = "idx_order_archive_consumer", columnList = "consumer_id"),
+                @Index(name = "idx_order_archive_finished", columnList = "finished_at")
+        }
+)
+public class ArchivedOrder {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false, length = 200)
+    private String title;
+
+    @Column(nullable = false, length = 200)
+    private String titleKey;
+
+    @Column(name = "supplier_id", nullable = false)
+    private Long supplierId;
+
+    @Column(name = "consumer_id", nullable = false)
+    private Long consumerId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime finishedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -3,12 +3,18 @@ package com.example.demo.model;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Set;
 
 @Getter
@@ -19,13 +25,15 @@ import java.util.Set;
 @ToString(exclude = {"ordersAsSupplier", "ordersAsConsumer"})
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clients")
+@NaturalIdCache(region = "clients-by-email")
 @Table(
         name = "clients",
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_clients_email", columnNames = {"email"})
         },
         indexes = {
-                @Index(name = "idx_clients_email", columnList = "email"),
                 @Index(name = "idx_clients_name", columnList = "name"),
                 @Index(name = "idx_clients_address", columnList = "address")
         }
@@ -40,6 +48,7 @@ public class Client {
     @Column(nullable = false, length = 200)
     private String name;
 
+    @NaturalId(mutable = true)
     @Column(nullable = false, length = 320, unique = true)
     private String email;
 
@@ -52,6 +61,15 @@ public class Client {
 
     private LocalDateTime deactivatedAt;
 
+    /**
+     * Сумма архивных заказов клиента (поставщик +, потребитель -): прибыль = этот баланс
+     * плюс заказы из горячей таблицы.
+     */
+    @Builder.Default
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal archivedBalance = BigDecimal.ZERO;
+
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -60,6 +78,9 @@ public class Client {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     @JsonIgnore
     @OneToMany(mappedBy = "supplier", fetch = FetchType.LAZY)
     @Builder.Default
@@ -83,7 +104,15 @@ public class Client {
                 .filter(p -> p != null)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        return plus.subtract(minus);
+        return archivedBalance.add(plus).subtract(minus);
+    }
+
+    /**
+     * Хранимая форма email: уникальность и поиск — точным сравнением по ней,
+     * без lower() в запросах.
+     */
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
     }
 
     @PrePersist
@@ -93,7 +122,7 @@ public class Client {
             name = name.trim();
         }
         if (email != null) {
-            email = email.trim().toLowerCase();
+            email = normalizeEmail(email);
         }
         if (address != null) {
             address = address.trim();
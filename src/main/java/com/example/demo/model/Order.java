@@ -8,6 +8,7 @@ import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Getter
 @Setter
@@ -20,16 +21,17 @@ import java.time.LocalDateTime;
 @Table(
         name = "orders",
         uniqueConstraints = {
-                // Бизнес-ключ: title + supplier + consumer
+                // Бизнес-ключ: title (без учёта регистра) + supplier + consumer
                 @UniqueConstraint(
                         name = "uk_order_business_key",
-                        columnNames = {"title", "supplier_id", "consumer_id"}
+                        columnNames = {"title_key", "supplier_id", "consumer_id"}
                 )
         },
         indexes = {
                 @Index(name = "idx_order_supplier", columnList = "supplier_id"),
                 @Index(name = "idx_order_consumer", columnList = "consumer_id"),
-                @Index(name = "idx_order_title", columnList = "title")
+                @Index(name = "idx_order_title", columnList = "title"),
+                @Index(name = "idx_order_finished", columnList = "finished_at")
         }
 )
 @Check(constraints = "price > 0")
@@ -44,6 +46,13 @@ public class Order {
     @Column(nullable = false, length = 200)
     private String title;
 
+    /**
+     * Нормализованный title для бизнес-ключа: уникальность проверяет сама БД,
+     * поэтому она соблюдается при нескольких экземплярах приложения на одной базе.
+     */
+    @Column(nullable = false, length = 200)
+    private String titleKey;
+
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
     @JoinColumn(
             name = "supplier_id",
@@ -77,8 +86,24 @@ public class Order {
     @Column(nullable = false)
     private LocalDateTime updatedAt;
 
+    @Version
+    private Long version;
+
     @Transient
     public boolean isProcessed() {
         return finishedAt != null;
     }
+
+    public static String titleKeyOf(String title) {
+        return title == null ? null : title.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void normalize() {
+        if (title != null) {
+            title = title.trim();
+        }
+        titleKey = titleKeyOf(title);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Заявка на создание заказа в персистентной очереди.
+ * Воркеры забирают её условным UPDATE (PENDING -> PROCESSING), поэтому
+ * заявка переживает рестарт и обрабатывается ровно одним воркером.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Entity
+@Table(
+        name = "order_tasks",
+        indexes = {
+                @Index(name = "idx_order_task_status", columnList = "status, id"),
+                @Index(name = "idx_order_task_claimed_at", columnList = "claimed_at")
+        }
+)
+public class OrderTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false, length = 300)
+    private String title;
+
+    @Column(nullable = false)
+    private Long supplierId;
+
+    @Column(nullable = false)
+    private Long consumerId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal price;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OrderTaskStatus status = OrderTaskStatus.PENDING;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(length = 100)
+    private String claimedBy;
+
+    private LocalDateTime claimedAt;
+
+    private Long orderId;
+
+    @Column(length = 1000)
+    private String error;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
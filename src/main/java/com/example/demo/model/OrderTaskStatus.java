@@ -0,0 +1,8 @@
+package com.example.demo.model;
+
+public enum OrderTaskStatus {
+    PENDING,
+    PROCESSING,
+    DONE,
+    FAILED
+}
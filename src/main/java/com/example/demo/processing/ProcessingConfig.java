@@ -0,0 +1,31 @@
+package com.example.demo.processing;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Configuration
+@EnableConfigurationProperties(ProcessingProperties.class)
+public class ProcessingConfig {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public TimeSource timeSource(ProcessingProperties properties, Clock clock, ProcessingExecutors executors) {
+        return switch (properties.getTime()) {
+            case SYSTEM -> new SystemTimeSource(clock, executors.timer());
+            case VIRTUAL -> new VirtualTimeSource(LocalDateTime.now(clock),
+                    Duration.ofMillis(properties.getSettleMs()));
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.processing;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Потоки неблокирующей обработки заказов: таймер окончания обработки и пул commit-фазы.
+ * Не регистрируются как бины Executor, чтобы не отключать авто-настроенный
+ * applicationTaskExecutor Spring Boot.
+ */
+@Component
+public class ProcessingExecutors {
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService commit;
+
+    public ProcessingExecutors(ProcessingProperties properties) {
+        this.timer = new ScheduledThreadPoolExecutor(Math.max(1, properties.getTimerThreads()), daemonThreads("order-timer-"));
+        // Снятые таймеры (деактивация клиента) сразу удаляются из очереди, а не ждут своего срока
+        this.timer.setRemoveOnCancelPolicy(true);
+        this.commit = Executors.newFixedThreadPool(Math.max(1, properties.getCommitThreads()), daemonThreads("order-commit-"));
+    }
+
+    public ScheduledExecutorService timer() {
+        return timer;
+    }
+
+    public ExecutorService commit() {
+        return commit;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+        commit.shutdown();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.demo.processing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Модель времени обработки заказа (app.processing.*).
+ */
+@Getter
+@Setter
+@ConfigurationProperties("app.processing")
+public class ProcessingProperties {
+
+    public enum TimeMode { SYSTEM, VIRTUAL }
+
+    public enum Distribution { UNIFORM, FIXED, EXPONENTIAL }
+
+    private TimeMode time = TimeMode.SYSTEM;
+
+    /** VIRTUAL: сколько мс без новых дедлайнов ждать перед очередным сдвигом часов. */
+    private long settleMs = 2;
+
+    private Distribution distribution = Distribution.UNIFORM;
+
+    /** Границы задержки; для EXPONENTIAL значение обрезается до них. */
+    private long minMs = 1_000;
+    private long maxMs = 10_000;
+
+    /** FIXED — задержка, EXPONENTIAL — среднее. */
+    private long meanMs = 5_000;
+
+    /** Если задан, задержка — детерминированная функция seed и бизнес-ключа заказа. */
+    private Long seed;
+
+    /** Потоки таймера неблокирующей обработки и потоки commit-фазы после срабатывания. */
+    private int timerThreads = 1;
+    private int commitThreads = 8;
+
+    /** Фиксированная задержка (мс) для отдельных клиентов: id клиента -> мс. */
+    private Map<Long, Long> overrides = new HashMap<>();
+}
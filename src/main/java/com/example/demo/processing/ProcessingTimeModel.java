@@ -0,0 +1,84 @@
+package com.example.demo.processing;
+
+import com.example.demo.processing.ProcessingProperties.Distribution;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * Сколько длится обработка заказа. При заданном seed результат зависит только
+ * от seed, бизнес-ключа заказа (поставщик, потребитель, нормализованный title)
+ * и порядкового номера попытки с этим ключом: повторы одного ключа получают
+ * разные задержки, а набор задержек прогона воспроизводим.
+ */
+@Component
+public class ProcessingTimeModel {
+
+    private record Key(Long supplierId, Long consumerId, String titleKey) {
+    }
+
+    private final ProcessingProperties properties;
+    private final Map<Key, AtomicLong> attempts = new ConcurrentHashMap<>();
+
+    public ProcessingTimeModel(ProcessingProperties properties) {
+        if (properties.getMinMs() < 0 || properties.getMaxMs() < properties.getMinMs()) {
+            throw new IllegalStateException("app.processing: expected 0 <= min-ms <= max-ms");
+        }
+        this.properties = properties;
+    }
+
+    public Duration delayFor(Long supplierId, Long consumerId, String titleKey) {
+        Long override = maxOverride(supplierId, consumerId);
+        if (override != null) {
+            return Duration.ofMillis(override);
+        }
+
+        RandomGenerator random = properties.getSeed() == null
+                ? ThreadLocalRandom.current()
+                : new SplittableRandom(seedFor(supplierId, consumerId, titleKey));
+        long min = properties.getMinMs();
+        long max = properties.getMaxMs();
+
+        long millis = switch (properties.getDistribution()) {
+            case FIXED -> properties.getMeanMs();
+            case UNIFORM -> random.nextLong(min, max + 1);
+            case EXPONENTIAL -> Math.round(-Math.log(1 - random.nextDouble()) * properties.getMeanMs());
+        };
+        if (properties.getDistribution() != Distribution.FIXED) {
+            millis = Math.max(min, Math.min(max, millis));
+        }
+        return Duration.ofMillis(millis);
+    }
+
+    private Long maxOverride(Long supplierId, Long consumerId) {
+        Long s = properties.getOverrides().get(supplierId);
+        Long c = properties.getOverrides().get(consumerId);
+        if (s == null) {
+            return c;
+        }
+        return c == null ? s : Math.max(s, c);
+    }
+
+    private long seedFor(Long supplierId, Long consumerId, String titleKey) {
+        long attempt = attempts.computeIfAbsent(new Key(supplierId, consumerId, titleKey), k -> new AtomicLong())
+                .getAndIncrement();
+        long z = properties.getSeed();
+        z = mix(z ^ supplierId);
+        z = mix(z ^ consumerId);
+        z = mix(z ^ titleKey.hashCode());
+        return mix(z ^ attempt);
+    }
+
+    // Перемешивание битов хэша (SplitMix64), чтобы близкие title давали далёкие seed
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
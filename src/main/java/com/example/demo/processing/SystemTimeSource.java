@@ -0,0 +1,54 @@
+package com.example.demo.processing;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Реальное время. Блокирующее ожидание держит поток заказа; неблокирующее —
+ * только запись в очереди таймера, поэтому тысячи заказов «в обработке»
+ * обслуживаются одним-двумя потоками.
+ */
+public class SystemTimeSource implements TimeSource {
+
+    private final Clock clock;
+    private final ScheduledExecutorService timer;
+
+    public SystemTimeSource(Clock clock, ScheduledExecutorService timer) {
+        this.clock = clock;
+        this.timer = timer;
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    @Override
+    public LocalDateTime awaitUntil(LocalDateTime deadline, CountDownLatch wakeUp) throws InterruptedException {
+        long remaining = Duration.between(now(), deadline).toMillis();
+        if (remaining > 0) {
+            wakeUp.await(remaining, TimeUnit.MILLISECONDS);
+        }
+        return now();
+    }
+
+    @Override
+    public CompletableFuture<LocalDateTime> at(LocalDateTime deadline) {
+        CompletableFuture<LocalDateTime> fired = new CompletableFuture<>();
+        long delay = Math.max(0, Duration.between(now(), deadline).toMillis());
+        ScheduledFuture<?> task = timer.schedule(() -> fired.complete(now()), delay, TimeUnit.MILLISECONDS);
+        fired.whenComplete((t, e) -> task.cancel(false));
+        return fired;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return false;
+    }
+}
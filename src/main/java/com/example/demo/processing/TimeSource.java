@@ -0,0 +1,29 @@
+package com.example.demo.processing;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Источник времени для обработки заказов и смены статусов клиентов.
+ * Все моменты, которые сравниваются между собой (finishedAt заказа и
+ * deactivatedAt клиента), должны браться из одного источника.
+ */
+public interface TimeSource {
+
+    LocalDateTime now();
+
+    /**
+     * Ждёт наступления {@code deadline} или срабатывания {@code wakeUp}
+     * и возвращает момент пробуждения.
+     */
+    LocalDateTime awaitUntil(LocalDateTime deadline, CountDownLatch wakeUp) throws InterruptedException;
+
+    /**
+     * Неблокирующий вариант: future завершается моментом срабатывания таймера.
+     * Досрочное завершение future снимает таймер.
+     */
+    CompletableFuture<LocalDateTime> at(LocalDateTime deadline);
+
+    boolean isVirtual();
+}
@@ -0,0 +1,138 @@
+package com.example.demo.processing;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Виртуальное время: ожидание не длится реально. Дедлайны копятся в очереди
+ * с приоритетом, отдельный поток снимает самый ранний, сдвигает часы на него
+ * и завершает его future — то есть заказы «заканчивают обработку» строго
+ * в порядке finishedAt, а не в порядке прихода запросов. Перед каждым сдвигом
+ * поток ждёт {@code settle} без новых дедлайнов, чтобы одновременно пришедшие
+ * запросы успели встать в очередь.
+ * <p>
+ * Зависимые действия, повешенные на {@link #at} без *Async, выполняются
+ * в этом потоке до следующего сдвига часов.
+ */
+public class VirtualTimeSource implements TimeSource, AutoCloseable {
+
+    private record Pending(LocalDateTime deadline, long seq, CompletableFuture<LocalDateTime> fired) {
+    }
+
+    private static final Comparator<Pending> ORDER =
+            Comparator.comparing(Pending::deadline).thenComparingLong(Pending::seq);
+
+    private final PriorityQueue<Pending> pending = new PriorityQueue<>(ORDER);
+    private final long settleNanos;
+    private final Thread releaser;
+
+    private volatile LocalDateTime current;
+    private long seq;
+    private long lastArrival = System.nanoTime();
+    private boolean closed;
+
+    public VirtualTimeSource(LocalDateTime start, Duration settle) {
+        this.current = start;
+        this.settleNanos = settle.toNanos();
+        this.releaser = new Thread(this::releaseInOrder, "virtual-time");
+        this.releaser.setDaemon(true);
+        this.releaser.start();
+    }
+
+    @Override
+    public LocalDateTime now() {
+        return current;
+    }
+
+    /**
+     * Срабатывание дедлайна тоже отпускает {@code wakeUp}: один latch ждёт
+     * и виртуальный таймер, и внешнее пробуждение.
+     */
+    @Override
+    public LocalDateTime awaitUntil(LocalDateTime deadline, CountDownLatch wakeUp) throws InterruptedException {
+        if (wakeUp.getCount() == 0) {
+            return now();
+        }
+        CompletableFuture<LocalDateTime> fired = at(deadline);
+        fired.thenRun(wakeUp::countDown);
+        try {
+            wakeUp.await();
+        } catch (InterruptedException e) {
+            fired.cancel(false);
+            throw e;
+        }
+        // Разбудили раньше дедлайна — запись снимается из очереди при следующем проходе
+        fired.complete(now());
+        return fired.join();
+    }
+
+    @Override
+    public CompletableFuture<LocalDateTime> at(LocalDateTime deadline) {
+        CompletableFuture<LocalDateTime> fired = new CompletableFuture<>();
+        synchronized (this) {
+            pending.add(new Pending(deadline, seq++, fired));
+            lastArrival = System.nanoTime();
+            notifyAll();
+        }
+        return fired;
+    }
+
+    private void releaseInOrder() {
+        try {
+            while (true) {
+                Pending next = takeNext();
+                if (next == null) {
+                    return;
+                }
+                next.fired().complete(next.deadline());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized Pending takeNext() throws InterruptedException {
+        while (!closed) {
+            Pending next = pending.peek();
+            if (next == null) {
+                wait();
+                continue;
+            }
+            if (next.fired().isDone()) {
+                pending.poll();
+                continue;
+            }
+            long quiet = settleNanos - (System.nanoTime() - lastArrival);
+            if (quiet > 0) {
+                TimeUnit.NANOSECONDS.timedWait(this, quiet);
+                continue;
+            }
+            pending.poll();
+            if (next.deadline().isAfter(current)) {
+                current = next.deadline();
+            }
+            return next;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isVirtual() {
+        return true;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            pending.forEach(p -> p.fired().cancel(false));
+            pending.clear();
+            notifyAll();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.ArchivedOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    @Query("select a.updatedAt from ArchivedOrder a where a.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(Long id);
+
+    boolean existsByTitleKeyAndSupplierIdAndConsumerId(String titleKey, Long supplierId, Long consumerId);
+}
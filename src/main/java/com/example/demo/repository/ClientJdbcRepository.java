@@ -0,0 +1,54 @@
+package com.example.demo.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Прямой JDBC-доступ к таблице clients для потоковой выдачи списков.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClientJdbcRepository {
+
+    private static final String SELECT_ALL = """
+            select id, name, email, address, active, deactivated_at
+            from clients
+            order by id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record ClientRow(long id,
+                            String name,
+                            String email,
+                            String address,
+                            boolean active,
+                            LocalDateTime deactivatedAt) {
+    }
+
+    public void streamAll(int fetchSize, Consumer<ClientRow> consumer) {
+        jdbcTemplate.query(con -> {
+            var ps = con.prepareStatement(SELECT_ALL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        }, (RowCallbackHandler) rs -> consumer.accept(mapRow(rs)));
+    }
+
+    private static ClientRow mapRow(ResultSet rs) throws SQLException {
+        return new ClientRow(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("address"),
+                rs.getBoolean("active"),
+                UtcTimestamps.get(rs, "deactivated_at")
+        );
+    }
+}
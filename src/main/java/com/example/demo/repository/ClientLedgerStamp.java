@@ -0,0 +1,8 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+
+public interface ClientLedgerStamp {
+    Long getOrderCount();
+    LocalDateTime getLastUpdatedAt();
+}
@@ -0,0 +1,14 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Client;
+
+import java.util.Optional;
+
+public interface ClientNaturalIdRepository {
+
+    /**
+     * Поиск по natural-id (нормализованный email): при включённом кэше второго уровня
+     * идёт через кэш natural-id и сущностей без запроса в БД.
+     */
+    Optional<Client> findByNaturalEmail(String normalizedEmail);
+}
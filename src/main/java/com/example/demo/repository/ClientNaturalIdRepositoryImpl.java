@@ -0,0 +1,21 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Client;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+class ClientNaturalIdRepositoryImpl implements ClientNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Client> findByNaturalEmail(String normalizedEmail) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Client.class)
+                .loadOptional(normalizedEmail);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.repository;
+
+import java.math.BigDecimal;
+
+public interface ClientProfitView {
+    Long getClientId();
+    String getName();
+    String getEmail();
+    Boolean getActive();
+    BigDecimal getProfit();
+}
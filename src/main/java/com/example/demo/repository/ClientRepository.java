@@ -2,18 +2,30 @@ package com.example.demo.repository;
 
 import com.example.demo.model.Client;
 import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ClientRepository extends JpaRepository<Client, Long> {
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientNaturalIdRepository {
 
-    Optional<Client> findByEmailIgnoreCase(String email);
+    // Кэшируемые скаляры: кэш запросов сбрасывается при любой записи в clients
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c.active from Client c where c.id = :id")
+    Optional<Boolean> findActiveById(Long id);
 
-    boolean existsByEmailIgnoreCase(String email);
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("select c.updatedAt from Client c where c.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(Long id);
 
     @Query(
             "select c from Client c " +
@@ -23,7 +35,79 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     )
     List<Client> searchByKeyword(String q);
 
+    @Query(
+            "select c.id from Client c " +
+                    "where lower(c.name) like lower(concat('%', :q, '%')) " +
+                    "   or lower(c.email) like lower(concat('%', :q, '%')) " +
+                    "   or lower(coalesce(c.address, '')) like lower(concat('%', :q, '%')) " +
+                    "order by c.id"
+    )
+    List<Long> searchIdsByKeyword(String q);
+
+    // В порядке id, как lockIds: иначе пакетная смена статуса и commit-фаза заказа взаимоблокируются
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c.id from Client c where c.id in :ids and c.active = :active order by c.id")
+    List<Long> lockIdsByActive(Collection<Long> ids, boolean active);
+
+    // Bulk-UPDATE: Hibernate сам инвалидирует регионы кэша clients и clients-by-email
+    @Modifying
+    @Query("""
+           update Client c
+           set c.active = :active, c.deactivatedAt = :deactivatedAt, c.updatedAt = :now,
+               c.version = coalesce(c.version, 0) + 1
+           where c.id in :ids and c.active <> :active
+           """)
+    int bulkUpdateActive(Collection<Long> ids, boolean active, LocalDateTime deactivatedAt, LocalDateTime now);
+
+    @Query("""
+           select c.id as id, c.active as active, c.deactivatedAt as deactivatedAt, c.version as version
+           from Client c
+           where c.id in :ids
+           """)
+    List<ClientStatusView> findStatusByIdIn(Collection<Long> ids);
+
+    @Query("""
+           select c.id as clientId, c.name as name, c.email as email, c.active as active,
+                  c.archivedBalance
+                + coalesce(sum(case when o.supplier.id = c.id then o.price else 0 end), 0)
+                - coalesce(sum(case when o.consumer.id = c.id then o.price else 0 end), 0) as profit
+           from Client c
+           left join Order o on o.supplier.id = c.id or o.consumer.id = c.id
+           group by c.id, c.name, c.email, c.active, c.archivedBalance
+           order by c.id
+           """)
+    List<ClientProfitView> findAllWithProfit();
+
+    @Query("""
+           select lower(trim(c.email)) from Client c
+           group by lower(trim(c.email))
+           having count(c) > 1
+           """)
+    List<String> findNormalizedEmailCollisions();
+
+    @Query("select count(c) from Client c where c.email <> lower(trim(c.email))")
+    long countNotNormalizedEmails();
+
+    @Modifying
+    @Query("""
+           update Client c
+           set c.email = lower(trim(c.email)), c.updatedAt = :now,
+               c.version = coalesce(c.version, 0) + 1
+           where c.email <> lower(trim(c.email))
+           """)
+    int normalizeEmails(LocalDateTime now);
+
+    // Блокировки всегда в порядке id: commit-фаза заказа и архивация
     @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select c from Client c where c.id = :id")
-    Optional<Client> findByIdForUpdate(Long id);
+    @Query("select c.id from Client c where c.id in :ids order by c.id")
+    List<Long> lockIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("""
+           update Client c
+           set c.archivedBalance = c.archivedBalance + :delta, c.updatedAt = :now,
+               c.version = coalesce(c.version, 0) + 1
+           where c.id = :id
+           """)
+    int addArchivedBalance(Long id, BigDecimal delta, LocalDateTime now);
 }
\ No newline at end of file
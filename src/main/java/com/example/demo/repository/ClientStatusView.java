@@ -0,0 +1,10 @@
+package com.example.demo.repository;
+
+import java.time.LocalDateTime;
+
+public interface ClientStatusView {
+    Long getId();
+    Boolean getActive();
+    LocalDateTime getDeactivatedAt();
+    Long getVersion();
+}
@@ -0,0 +1,406 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.Order;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+
+/**
+ * Прямой JDBC-доступ к таблице orders для массовых операций,
+ * где построение сущностей Hibernate и DTO не нужно.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderJdbcRepository {
+
+    // История читается из горячей таблицы и архива двумя курсорами, каждый по id;
+    // слияние на стороне приложения не заставляет БД сортировать всю историю целиком
+    private static final String SELECT_ALL_HOT = """
+            select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at
+            from orders
+            order by id
+            """;
+
+    private static final String SELECT_ALL_ARCHIVED = """
+            select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at
+            from orders_archive
+            order by id
+            """;
+
+    private static final String SELECT_ALL_HOT_BY_FINISHED = """
+            select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at
+            from orders
+            order by finished_at, id
+            """;
+
+    private static final String SELECT_ALL_ARCHIVED_BY_FINISHED = """
+            select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at
+            from orders_archive
+            order by finished_at, id
+            """;
+
+    private static final String SELECT_BY_CLIENT_HOT = """
+            select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at
+            from orders
+            where supplier_id = ? or consumer_id = ?
+            order by id
+            """;
+
+    private static final String SELECT_BY_CLIENT_ARCHIVED = """
+            select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at
+            from orders_archive
+            where supplier_id = ? or consumer_id = ?
+            order by id
+            """;
+
+    private static final String SELECT_ARCHIVABLE_IDS = """
+            select id from orders
+            where finished_at < ?
+            order by id
+            limit ?
+            """;
+
+    private static final String COLUMNS =
+            "id, title, title_key, supplier_id, consumer_id, price, started_at, finished_at, created_at, updated_at";
+
+    // Импорт снапшота сохраняет исходный id; строка пропускается, если id или бизнес-ключ уже в архиве
+    private static final String INSERT = """
+            insert into orders (id, title, title_key, supplier_id, consumer_id, price, started_at, finished_at, created_at, updated_at, version)
+            select ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0
+            where not exists (select 1 from orders_archive a
+                              where a.id = ? or (a.title_key = ? and a.supplier_id = ? and a.consumer_id = ?))
+            """;
+
+    // Commit-фаза заказа одним оператором: статусы обоих клиентов на момент окончания обработки,
+    // лимит потребителя (архивный баланс + горячая таблица) и бизнес-ключ в orders и orders_archive
+    private static final String INSERT_IF_ALLOWED = """
+            insert into orders (title, title_key, supplier_id, consumer_id, price, started_at, finished_at, created_at, updated_at, version)
+            select ?, ?, s.id, c.id, ?, ?, ?, ?, ?, 0
+            from clients s
+            join clients c on c.id = ?
+            where s.id = ?
+              and s.active and (s.deactivated_at is null or s.deactivated_at > ?)
+              and c.active and (c.deactivated_at is null or c.deactivated_at > ?)
+              and c.archived_balance
+                  + coalesce((select sum(case when o.supplier_id = c.id then o.price else -o.price end)
+                              from orders o
+                              where o.supplier_id = c.id or o.consumer_id = c.id), 0)
+                  - ? >= ?
+              and not exists (select 1 from orders o
+                              where o.title_key = ? and o.supplier_id = s.id and o.consumer_id = c.id)
+              and not exists (select 1 from orders_archive a
+                              where a.title_key = ? and a.supplier_id = s.id and a.consumer_id = c.id)
+            """;
+
+    // Условия вставки по отдельности, только после отказа; если все выполнены — отказ по бизнес-ключу
+    private static final String SELECT_REJECTION = """
+            select s.active and (s.deactivated_at is null or s.deactivated_at > ?) as supplier_ok,
+                   c.active and (c.deactivated_at is null or c.deactivated_at > ?) as consumer_ok,
+                   c.archived_balance
+                   + coalesce((select sum(case when o.supplier_id = c.id then o.price else -o.price end)
+                               from orders o
+                               where o.supplier_id = c.id or o.consumer_id = c.id), 0)
+                   - ? >= ? as credit_ok
+            from clients s
+            join clients c on c.id = ?
+            where s.id = ?
+            """;
+
+    private static final String SELECT_DUPLICATE_KEYS = """
+            select title_key, supplier_id, consumer_id, count(*) as cnt
+            from (select id, title_key, supplier_id, consumer_id from orders
+                  union all
+                  select id, title_key, supplier_id, consumer_id from orders_archive) o
+            group by title_key, supplier_id, consumer_id
+            having count(*) > 1
+            order by min(id)
+            """;
+
+    private static final String SELECT_FINISHED_AFTER_DEACTIVATION = """
+            select o.id as order_id, c.id as client_id, o.finished_at, c.deactivated_at
+            from (select id, supplier_id, consumer_id, finished_at from orders
+                  union all
+                  select id, supplier_id, consumer_id, finished_at from orders_archive) o
+            join clients c on c.id = o.supplier_id or c.id = o.consumer_id
+            where c.deactivated_at is not null and o.finished_at >= c.deactivated_at
+            order by o.id
+            """;
+
+    // identity_base — следующее значение identity в H2
+    private static final String SELECT_NEXT_ORDER_ID = """
+            select greatest(
+                (select identity_base from information_schema.columns
+                 where table_name = 'ORDERS' and column_name = 'ID'),
+                (select coalesce(max(id), 0) + 1
+                 from (select id from orders union all select id from orders_archive) o))
+            """;
+
+    private static final Comparator<OrderRow> BY_ID = Comparator.comparingLong(OrderRow::id);
+    private static final Comparator<OrderRow> BY_FINISHED =
+            Comparator.comparing(OrderRow::finishedAt).thenComparingLong(OrderRow::id);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public record OrderRow(long id,
+                           String title,
+                           long supplierId,
+                           long consumerId,
+                           BigDecimal price,
+                           LocalDateTime startedAt,
+                           LocalDateTime finishedAt,
+                           LocalDateTime createdAt) {
+    }
+
+    /**
+     * Причина отказа условной вставки, в порядке проверки.
+     */
+    public enum InsertRejection {
+        SUPPLIER_INACTIVE,
+        CONSUMER_INACTIVE,
+        CREDIT_LIMIT_EXCEEDED,
+        DUPLICATE_ORDER
+    }
+
+    public record DuplicateKeyRow(String titleKey, long supplierId, long consumerId, long count) {
+    }
+
+    public record LateOrderRow(long orderId, long clientId, LocalDateTime finishedAt, LocalDateTime deactivatedAt) {
+    }
+
+    /**
+     * Построчно читает все заказы (горячие и архивные) в порядке id, не накапливая их в памяти.
+     */
+    public void streamAll(int fetchSize, Consumer<OrderRow> consumer) {
+        streamMerged(SELECT_ALL_HOT, SELECT_ALL_ARCHIVED, BY_ID, fetchSize, consumer);
+    }
+
+    /**
+     * Как {@link #streamAll}, но в порядке (finishedAt, id) — в порядке окончания обработки.
+     */
+    public void streamAllByFinishedAt(int fetchSize, Consumer<OrderRow> consumer) {
+        streamMerged(SELECT_ALL_HOT_BY_FINISHED, SELECT_ALL_ARCHIVED_BY_FINISHED, BY_FINISHED, fetchSize, consumer);
+    }
+
+    public void streamByClient(long clientId, int fetchSize, Consumer<OrderRow> consumer) {
+        streamMerged(SELECT_BY_CLIENT_HOT, SELECT_BY_CLIENT_ARCHIVED, BY_ID, fetchSize, consumer, clientId, clientId);
+    }
+
+    /**
+     * Вставляет строки с их id. Возвращает число вставленных; меньше rows.size() — часть строк
+     * конфликтует с архивом.
+     */
+    public int insertBatch(List<OrderRow> rows, LocalDateTime now) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT, rows, rows.size(), (ps, r) -> {
+            String titleKey = Order.titleKeyOf(r.title());
+            ps.setLong(1, r.id());
+            ps.setString(2, r.title().trim());
+            ps.setString(3, titleKey);
+            ps.setLong(4, r.supplierId());
+            ps.setLong(5, r.consumerId());
+            ps.setBigDecimal(6, r.price());
+            UtcTimestamps.set(ps, 7, r.startedAt());
+            UtcTimestamps.set(ps, 8, r.finishedAt());
+            UtcTimestamps.set(ps, 9, r.createdAt());
+            UtcTimestamps.set(ps, 10, now);
+            ps.setLong(11, r.id());
+            ps.setString(12, titleKey);
+            ps.setLong(13, r.supplierId());
+            ps.setLong(14, r.consumerId());
+        });
+        int total = 0;
+        for (int[] batch : counts) {
+            for (int c : batch) {
+                total += Math.max(c, 0);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Вставляет заказ, только если оба клиента активны на момент finishedAt, потребитель
+     * не уходит ниже creditLimit и бизнес-ключ свободен. Строки клиентов должны быть
+     * заблокированы вызывающим. Возвращает id заказа или пусто, если вставка отклонена.
+     */
+    public OptionalLong insertIfAllowed(OrderRow r, BigDecimal creditLimit, LocalDateTime now) {
+        String titleKey = Order.titleKeyOf(r.title());
+        KeyHolder keys = new GeneratedKeyHolder();
+        int inserted = jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement(INSERT_IF_ALLOWED, new String[]{"id"});
+            ps.setString(1, r.title());
+            ps.setString(2, titleKey);
+            ps.setBigDecimal(3, r.price());
+            UtcTimestamps.set(ps, 4, r.startedAt());
+            UtcTimestamps.set(ps, 5, r.finishedAt());
+            UtcTimestamps.set(ps, 6, r.createdAt());
+            UtcTimestamps.set(ps, 7, now);
+            ps.setLong(8, r.consumerId());
+            ps.setLong(9, r.supplierId());
+            UtcTimestamps.set(ps, 10, r.finishedAt());
+            UtcTimestamps.set(ps, 11, r.finishedAt());
+            ps.setBigDecimal(12, r.price());
+            ps.setBigDecimal(13, creditLimit);
+            ps.setString(14, titleKey);
+            ps.setString(15, titleKey);
+            return ps;
+        }, keys);
+        if (inserted == 0) {
+            return OptionalLong.empty();
+        }
+        Number id = keys.getKey();
+        return id == null ? OptionalLong.empty() : OptionalLong.of(id.longValue());
+    }
+
+    public InsertRejection findRejection(OrderRow r, BigDecimal creditLimit) {
+        List<InsertRejection> reasons = jdbcTemplate.query(SELECT_REJECTION, ps -> {
+            UtcTimestamps.set(ps, 1, r.finishedAt());
+            UtcTimestamps.set(ps, 2, r.finishedAt());
+            ps.setBigDecimal(3, r.price());
+            ps.setBigDecimal(4, creditLimit);
+            ps.setLong(5, r.consumerId());
+            ps.setLong(6, r.supplierId());
+        }, (rs, i) -> {
+            if (!rs.getBoolean("supplier_ok")) return InsertRejection.SUPPLIER_INACTIVE;
+            if (!rs.getBoolean("consumer_ok")) return InsertRejection.CONSUMER_INACTIVE;
+            if (!rs.getBoolean("credit_ok")) return InsertRejection.CREDIT_LIMIT_EXCEEDED;
+            return InsertRejection.DUPLICATE_ORDER;
+        });
+        return reasons.get(0);
+    }
+
+    public List<DuplicateKeyRow> findDuplicateBusinessKeys() {
+        return jdbcTemplate.query(SELECT_DUPLICATE_KEYS, (rs, i) -> new DuplicateKeyRow(
+                rs.getString("title_key"),
+                rs.getLong("supplier_id"),
+                rs.getLong("consumer_id"),
+                rs.getLong("cnt")));
+    }
+
+    /**
+     * Заказы, завершившиеся не раньше текущего deactivatedAt своего поставщика или потребителя.
+     */
+    public List<LateOrderRow> findFinishedAfterDeactivation() {
+        return jdbcTemplate.query(SELECT_FINISHED_AFTER_DEACTIVATION, (rs, i) -> new LateOrderRow(
+                rs.getLong("order_id"),
+                rs.getLong("client_id"),
+                UtcTimestamps.get(rs, "finished_at"),
+                UtcTimestamps.get(rs, "deactivated_at")));
+    }
+
+    public List<Long> findArchivableIds(LocalDateTime finishedBefore, int limit) {
+        return jdbcTemplate.query(SELECT_ARCHIVABLE_IDS, ps -> {
+            UtcTimestamps.set(ps, 1, finishedBefore);
+            ps.setInt(2, limit);
+        }, (rs, i) -> rs.getLong(1));
+    }
+
+    /**
+     * Блокирует строки заказов до переноса в архив: параллельное удаление, изменение
+     * или перенос тех же заказов другим узлом дождётся окончания транзакции.
+     */
+    public List<OrderRow> lockForArchive(List<Long> ids) {
+        String sql = "select id, title, supplier_id, consumer_id, price, started_at, finished_at, created_at"
+                + " from orders where id in (" + placeholders(ids.size()) + ") order by id for update";
+        return jdbcTemplate.query(sql, (rs, i) -> mapRow(rs), ids.toArray());
+    }
+
+    public int copyToArchive(List<Long> ids, LocalDateTime archivedAt) {
+        String sql = "insert into orders_archive (" + COLUMNS + ", archived_at)"
+                + " select " + COLUMNS + ", ? from orders where id in (" + placeholders(ids.size()) + ")";
+        return jdbcTemplate.update(sql, ps -> {
+            UtcTimestamps.set(ps, 1, archivedAt);
+            for (int i = 0; i < ids.size(); i++) {
+                ps.setLong(i + 2, ids.get(i));
+            }
+        });
+    }
+
+    public int deleteByIds(List<Long> ids) {
+        return jdbcTemplate.update("delete from orders where id in (" + placeholders(ids.size()) + ")", ids.toArray());
+    }
+
+    /**
+     * Сдвигает identity orders за максимальный id в orders и orders_archive, чтобы новые
+     * заказы не столкнулись с импортированными, и никогда не назад: конкурентно созданные
+     * заказы могли продвинуть identity дальше. DDL: в H2 фиксирует текущую транзакцию
+     * непосредственно перед сдвигом, поэтому вызывается последним шагом транзакции.
+     */
+    public void restartIdentityAfterMaxId() {
+        Long next = jdbcTemplate.queryForObject(SELECT_NEXT_ORDER_ID, Long.class);
+        jdbcTemplate.execute("alter table orders alter column id restart with " + next);
+    }
+
+    private static String placeholders(int n) {
+        return String.join(", ", Collections.nCopies(n, "?"));
+    }
+
+    /**
+     * Слияние двух курсоров, упорядоченных одинаково ({@code order}, с id в конце ключа):
+     * в памяти только по одной строке из каждого.
+     */
+    private void streamMerged(String hotSql, String archivedSql, Comparator<OrderRow> order, int fetchSize,
+                              Consumer<OrderRow> consumer, Object... args) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (PreparedStatement hotPs = prepareCursor(con, hotSql, fetchSize, args);
+                 PreparedStatement archivedPs = prepareCursor(con, archivedSql, fetchSize, args);
+                 ResultSet hot = hotPs.executeQuery();
+                 ResultSet archived = archivedPs.executeQuery()) {
+                OrderRow nextHot = hot.next() ? mapRow(hot) : null;
+                OrderRow nextArchived = archived.next() ? mapRow(archived) : null;
+                while (nextHot != null || nextArchived != null) {
+                    int cmp = nextArchived == null ? -1 : nextHot == null ? 1 : order.compare(nextHot, nextArchived);
+                    if (cmp < 0) {
+                        consumer.accept(nextHot);
+                        nextHot = hot.next() ? mapRow(hot) : null;
+                    } else {
+                        // Курсоры открыты разными запросами: заказ, перенесённый архиватором между ними,
+                        // виден в обоих — отдаём его один раз
+                        if (cmp == 0) {
+                            nextHot = hot.next() ? mapRow(hot) : null;
+                        }
+                        consumer.accept(nextArchived);
+                        nextArchived = archived.next() ? mapRow(archived) : null;
+                    }
+                }
+            }
+            return null;
+        });
+    }
+
+    private static PreparedStatement prepareCursor(Connection con, String sql, int fetchSize, Object... args)
+            throws SQLException {
+        PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        ps.setFetchSize(fetchSize);
+        for (int i = 0; i < args.length; i++) {
+            ps.setObject(i + 1, args[i]);
+        }
+        return ps;
+    }
+
+    private static OrderRow mapRow(ResultSet rs) throws SQLException {
+        return new OrderRow(
+                rs.getLong("id"),
+                rs.getString("title"),
+                rs.getLong("supplier_id"),
+                rs.getLong("consumer_id"),
+                rs.getBigDecimal("price"),
+                UtcTimestamps.get(rs, "started_at"),
+                UtcTimestamps.get(rs, "finished_at"),
+                UtcTimestamps.get(rs, "created_at")
+        );
+    }
+}
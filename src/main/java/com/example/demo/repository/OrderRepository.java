@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,7 +18,17 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
            where o.supplier.id = :clientId or o.consumer.id = :clientId
            """)
     BigDecimal computeProfit(Long clientId);
+
+    @Query("""
+           select count(o) as orderCount, max(o.updatedAt) as lastUpdatedAt
+           from Order o
+           where o.supplier.id = :clientId or o.consumer.id = :clientId
+           """)
+    ClientLedgerStamp computeLedgerStamp(Long clientId);
+
+    @Query("select o.updatedAt from Order o where o.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(Long id);
+
     List<Order> findBySupplierIdOrConsumerId(Long supplierId, Long consumerId);
-    Optional<Order> findByTitleIgnoreCaseAndSupplierIdAndConsumerId(String title, Long supplierId, Long consumerId);
-    boolean existsByTitleIgnoreCaseAndSupplierIdAndConsumerId(String title, Long supplierId, Long consumerId);
+    boolean existsByTitleKeyAndSupplierIdAndConsumerId(String titleKey, Long supplierId, Long consumerId);
 }
\ No newline at end of file
@@ -0,0 +1,57 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.OrderTask;
+import com.example.demo.model.OrderTaskStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OrderTaskRepository extends JpaRepository<OrderTask, Long> {
+
+    @Query("select t.id from OrderTask t where t.status = :status order by t.id")
+    List<Long> findIdsByStatus(OrderTaskStatus status, Pageable page);
+
+    /**
+     * Забирает заявку, только если она всё ещё PENDING.
+     * Конкурирующие воркеры не ждут друг друга: проигравший получает 0 и берёт следующую.
+     */
+    @Modifying
+    @Query("""
+           update OrderTask t
+           set t.status = :processing, t.claimedBy = :worker, t.claimedAt = :now,
+               t.attempts = t.attempts + 1, t.updatedAt = :now
+           where t.id = :id and t.status = :pending
+           """)
+    int claim(Long id, String worker, LocalDateTime now, OrderTaskStatus pending, OrderTaskStatus processing);
+
+    @Modifying
+    @Query("""
+           update OrderTask t
+           set t.status = :status, t.orderId = :orderId, t.error = :error, t.updatedAt = :now
+           where t.id = :id and t.status = :processing and t.claimedBy = :worker
+           """)
+    int complete(Long id, String worker, OrderTaskStatus status, Long orderId, String error,
+                 LocalDateTime now, OrderTaskStatus processing);
+
+    @Modifying
+    @Query("""
+           update OrderTask t
+           set t.status = :pending, t.claimedBy = null, t.claimedAt = null, t.updatedAt = :now
+           where t.status = :processing and t.claimedAt < :staleBefore and t.attempts < :maxAttempts
+           """)
+    int requeueStale(LocalDateTime staleBefore, LocalDateTime now, int maxAttempts,
+                     OrderTaskStatus pending, OrderTaskStatus processing);
+
+    @Modifying
+    @Query("""
+           update OrderTask t
+           set t.status = :failed, t.claimedBy = null, t.claimedAt = null, t.error = :error, t.updatedAt = :now
+           where t.status = :processing and t.claimedAt < :staleBefore and t.attempts >= :maxAttempts
+           """)
+    int failStale(LocalDateTime staleBefore, LocalDateTime now, int maxAttempts, String error,
+                  OrderTaskStatus failed, OrderTaskStatus processing);
+}
@@ -0,0 +1,32 @@
+package com.example.demo.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Чтение и запись LocalDateTime в JDBC-коде так же, как это делает Hibernate
+ * с hibernate.jdbc.time_zone: UTC. Иначе на JVM не в UTC значения из JdbcTemplate
+ * и из сущностей расходятся на смещение зоны.
+ */
+final class UtcTimestamps {
+
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private UtcTimestamps() {
+    }
+
+    static void set(PreparedStatement ps, int index, LocalDateTime value) throws SQLException {
+        // Calendar не потокобезопасен — новый на каждый вызов
+        ps.setTimestamp(index, value == null ? null : Timestamp.valueOf(value), Calendar.getInstance(UTC));
+    }
+
+    static LocalDateTime get(ResultSet rs, String column) throws SQLException {
+        Timestamp ts = rs.getTimestamp(column, Calendar.getInstance(UTC));
+        return ts == null ? null : ts.toLocalDateTime();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Локальный реестр статусов клиентов с чтением без блокировок.
+ * Обновляется после коммита смены статуса; записи версионированы, поэтому
+ * запоздавшее обновление не перетирает более новое.
+ * <p>
+ * Реестр — только ускоритель: в рамках одного узла он мгновенно будит
+ * заказы, ожидающие обработки, но окончательную проверку статуса делает
+ * commit-фаза заказа под блокировкой строки в БД. Отказывать по нему нельзя:
+ * смена статуса на другом узле сюда не попадает, и запись может устареть.
+ */
+@Slf4j
+@Component
+public class ActiveClientRegistry {
+
+    public record ClientState(boolean active, LocalDateTime deactivatedAt, long version) {
+    }
+
+    /**
+     * Подписка на деактивацию; закрывается после завершения заказа.
+     */
+    public interface Subscription extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private final Map<Long, ClientState> states = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Consumer<Long>>> listeners = new ConcurrentHashMap<>();
+
+    public Optional<ClientState> get(Long clientId) {
+        return Optional.ofNullable(states.get(clientId));
+    }
+
+    public void update(Long clientId, boolean active, LocalDateTime deactivatedAt, Long version) {
+        ClientState next = new ClientState(active, deactivatedAt, version == null ? 0 : version);
+        ClientState applied = states.merge(clientId, next,
+                (prev, candidate) -> candidate.version() >= prev.version() ? candidate : prev);
+        if (applied == next && !active) {
+            notifyDeactivated(clientId);
+        }
+    }
+
+    public Subscription subscribe(List<Long> clientIds, Consumer<Long> onDeactivated) {
+        for (Long id : clientIds) {
+            listeners.compute(id, (k, set) -> {
+                Set<Consumer<Long>> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+                target.add(onDeactivated);
+                return target;
+            });
+        }
+        return () -> {
+            for (Long id : clientIds) {
+                listeners.computeIfPresent(id, (k, set) -> {
+                    set.remove(onDeactivated);
+                    return set.isEmpty() ? null : set;
+                });
+            }
+        };
+    }
+
+    private void notifyDeactivated(Long clientId) {
+        Set<Consumer<Long>> subscribers = listeners.get(clientId);
+        if (subscribers == null) {
+            return;
+        }
+        for (Consumer<Long> subscriber : subscribers) {
+            try {
+                subscriber.accept(clientId);
+            } catch (RuntimeException e) {
+                log.warn("Deactivation listener for client {} failed: {}", clientId, e.getMessage());
+            }
+        }
+    }
+}
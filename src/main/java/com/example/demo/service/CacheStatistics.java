@@ -0,0 +1,66 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CacheRegionStatsDto;
+import com.example.demo.dto.CacheStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Снимок статистики кэша второго уровня Hibernate. Счётчики ведутся только
+ * при {@code hibernate.generate_statistics=true} (профиль l2cache).
+ */
+@Component
+public class CacheStatistics {
+
+    private final Statistics statistics;
+
+    public CacheStatistics(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public CacheStatsDto snapshot() {
+        if (!statistics.isStatisticsEnabled()) {
+            return CacheStatsDto.builder().statisticsEnabled(false).regions(List.of()).build();
+        }
+        List<CacheRegionStatsDto> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(this::region)
+                .filter(Objects::nonNull)
+                .toList();
+        return CacheStatsDto.builder()
+                .statisticsEnabled(true)
+                .entityLoads(statistics.getEntityLoadCount())
+                .entityFetches(statistics.getEntityFetchCount())
+                .queryExecutions(statistics.getQueryExecutionCount())
+                .queryCacheHits(statistics.getQueryCacheHitCount())
+                .queryCacheMisses(statistics.getQueryCacheMissCount())
+                .naturalIdCacheHits(statistics.getNaturalIdCacheHitCount())
+                .naturalIdCacheMisses(statistics.getNaturalIdCacheMissCount())
+                .regions(regions)
+                .build();
+    }
+
+    private CacheRegionStatsDto region(String name) {
+        CacheRegionStatistics s = statistics.getCacheRegionStatistics(name);
+        if (s == null) {
+            return null;
+        }
+        long lookups = s.getHitCount() + s.getMissCount();
+        long inMemory = s.getElementCountInMemory();
+        return CacheRegionStatsDto.builder()
+                .region(name)
+                .hits(s.getHitCount())
+                .misses(s.getMissCount())
+                .puts(s.getPutCount())
+                .entriesInMemory(inMemory == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN ? null : inMemory)
+                .hitRatio(lookups == 0 ? null : (double) s.getHitCount() / lookups)
+                .build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.ClientRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * При старте приводит email существующих клиентов к нормализованной форме
+ * (см. {@code Client.normalizeEmail}), чтобы уникальность и поиск работали
+ * точным сравнением. Режимы {@code app.clients.email-backfill}:
+ * fix — исправить, validate — только проверить, off — пропустить.
+ * Если после нормализации адреса совпадут у разных клиентов, старт прерывается:
+ * такие записи нужно разобрать вручную.
+ */
+@Slf4j
+@Component
+public class ClientEmailBackfill implements ApplicationRunner {
+
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final String mode;
+
+    public ClientEmailBackfill(ClientRepository clientRepository,
+                               TransactionTemplate transactionTemplate,
+                               JdbcTemplate jdbcTemplate,
+                               @Value("${app.clients.email-backfill:fix}") String mode) {
+        this.clientRepository = clientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String m = mode.trim().toLowerCase(Locale.ROOT);
+        if ("off".equals(m)) {
+            return;
+        }
+        if (!"fix".equals(m) && !"validate".equals(m)) {
+            throw new IllegalStateException("Unknown app.clients.email-backfill mode: " + mode);
+        }
+
+        List<String> collisions = clientRepository.findNormalizedEmailCollisions();
+        if (!collisions.isEmpty()) {
+            throw new IllegalStateException("Client emails collide after normalization: " + collisions);
+        }
+
+        long pending = clientRepository.countNotNormalizedEmails();
+        if (pending > 0) {
+            if ("validate".equals(m)) {
+                throw new IllegalStateException(pending + " client emails are not normalized; run with app.clients.email-backfill=fix");
+            }
+            Integer fixed = transactionTemplate.execute(status -> clientRepository.normalizeEmails(LocalDateTime.now()));
+            log.info("Normalized {} client emails", fixed);
+        }
+
+        if ("fix".equals(m)) {
+            // Индекс дублировал уникальный uk_clients_email; ddl-auto: update сам его не удаляет
+            jdbcTemplate.execute("drop index if exists idx_clients_email");
+        }
+    }
+}
@@ -1,24 +1,29 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BulkClientStatusRequest;
+import com.example.demo.dto.BulkClientStatusResultDto;
 import com.example.demo.dto.ClientDto;
 import com.example.demo.dto.ClientProfitDto;
 import com.example.demo.dto.CreateClientRequest;
-import com.example.demo.dto.OrderDto;
 import com.example.demo.dto.UpdateClientRequest;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ClientService {
 
     ClientDto create(CreateClientRequest request);
     ClientDto getById(Long id);
+    String getETag(Long id);
     List<ClientDto> listAllOrSearch(String query);
+    void streamAll(Consumer<ClientDto> sink);
     ClientDto update(Long id, UpdateClientRequest request);
 
     ClientDto updateActiveStatus(Long id, boolean active);
+    BulkClientStatusResultDto updateActiveStatusBulk(BulkClientStatusRequest request);
 
-    List<OrderDto> listOrdersForClient(Long clientId);
     ClientProfitDto getProfit(Long clientId);
+    String getProfitETag(Long clientId);
     List<ClientProfitDto> findClientsByProfitRange(BigDecimal min, BigDecimal max);
 }
\ No newline at end of file
@@ -1,33 +1,83 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.BulkClientStatusItemDto;
+import com.example.demo.dto.BulkClientStatusOutcome;
+import com.example.demo.dto.BulkClientStatusRequest;
+import com.example.demo.dto.BulkClientStatusResultDto;
 import com.example.demo.dto.ClientDto;
 import com.example.demo.dto.ClientProfitDto;
 import com.example.demo.dto.CreateClientRequest;
-import com.example.demo.dto.OrderDto;
 import com.example.demo.dto.UpdateClientRequest;
 import com.example.demo.exception.BadRequestException;
 import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.exception.NotFoundException;
 import com.example.demo.model.Client;
-import com.example.demo.model.Order;
+import com.example.demo.model.Money;
+import com.example.demo.processing.TimeSource;
+import com.example.demo.repository.ClientJdbcRepository;
+import com.example.demo.repository.ClientJdbcRepository.ClientRow;
+import com.example.demo.repository.ClientLedgerStamp;
 import com.example.demo.repository.ClientRepository;
+import com.example.demo.repository.ClientStatusView;
 import com.example.demo.repository.OrderRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 @Service
-@RequiredArgsConstructor
 @Transactional
 public class ClientServiceImpl implements ClientService {
 
+    private static final int STREAM_FETCH_SIZE = 1_000;
+
     private final ClientRepository clientRepository;
     private final OrderRepository orderRepository;
+    private final ClientJdbcRepository clientJdbcRepository;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final ActiveClientRegistry activeClientRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final RequestCoalescer requestCoalescer;
+    private final TimeSource timeSource;
+    private final int bulkChunkSize;
+
+    public ClientServiceImpl(ClientRepository clientRepository,
+                             OrderRepository orderRepository,
+                             ClientJdbcRepository clientJdbcRepository,
+                             OptimisticRetryExecutor optimisticRetry,
+                             ActiveClientRegistry activeClientRegistry,
+                             TransactionTemplate transactionTemplate,
+                             RequestCoalescer requestCoalescer,
+                             TimeSource timeSource,
+                             @Value("${app.clients.bulk-chunk-size:500}") int bulkChunkSize) {
+        this.clientRepository = clientRepository;
+        this.orderRepository = orderRepository;
+        this.clientJdbcRepository = clientJdbcRepository;
+        this.optimisticRetry = optimisticRetry;
+        this.activeClientRegistry = activeClientRegistry;
+        this.transactionTemplate = transactionTemplate;
+        this.requestCoalescer = requestCoalescer;
+        this.timeSource = timeSource;
+        this.bulkChunkSize = bulkChunkSize;
+    }
+
+    private record StatusChunk(List<Long> changed, List<ClientStatusView> states) {
+    }
 
     private ClientDto toClientDto(Client c) {
         return ClientDto.builder()
@@ -40,16 +90,14 @@ public class ClientServiceImpl implements ClientService {
                 .build();
     }
 
-    private OrderDto toOrderDto(Order o) {
-        return OrderDto.builder()
-                .id(o.getId())
-                .title(o.getTitle())
-                .supplierId(o.getSupplier().getId())
-                .consumerId(o.getConsumer().getId())
-                .price(o.getPrice())
-                .startedAt(o.getStartedAt())
-                .finishedAt(o.getFinishedAt())
-                .createdAt(o.getCreatedAt())
+    private ClientDto toClientDto(ClientRow r) {
+        return ClientDto.builder()
+                .id(r.id())
+                .name(r.name())
+                .email(r.email())
+                .address(r.address())
+                .active(r.active())
+                .deactivatedAt(r.deactivatedAt())
                 .build();
     }
 
@@ -62,12 +110,12 @@ public class ClientServiceImpl implements ClientService {
             throw new BadRequestException("Client email must not be blank");
         }
 
-        clientRepository.findByEmailIgnoreCase(request.getEmail().trim())
-                .ifPresent(x -> { throw new ConflictException("Email already exists: " + request.getEmail()); });
+        clientRepository.findByNaturalEmail(Client.normalizeEmail(request.getEmail()))
+                .ifPresent(x -> { throw new ConflictException(ErrorCode.DUPLICATE_EMAIL, "Email already exists: " + request.getEmail()); });
 
         Client client = Client.builder()
                 .name(request.getName().trim())
-                .email(request.getEmail().trim())
+                .email(Client.normalizeEmail(request.getEmail()))
                 .address(request.getAddress() == null ? null : request.getAddress().trim())
                 .active(true)
                 .deactivatedAt(null)
@@ -84,6 +132,14 @@ public class ClientServiceImpl implements ClientService {
         return toClientDto(c);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getETag(Long id) {
+        return clientRepository.findUpdatedAtById(id)
+                .map(updatedAt -> ETags.weak("client", id, updatedAt))
+                .orElse(null);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ClientDto> listAllOrSearch(String query) {
@@ -97,13 +153,22 @@ public class ClientServiceImpl implements ClientService {
         if (q.length() < 3) {
             throw new BadRequestException("Search keyword must be at least 3 characters");
         }
-        return clientRepository.searchByKeyword(q).stream()
-                .sorted(Comparator.comparing(Client::getId))
-                .map(this::toClientDto)
-                .toList();
+        // Поиск регистронезависимый, поэтому и ключ склеивания без учёта регистра
+        return requestCoalescer.execute("client.search", q.toLowerCase(Locale.ROOT), () ->
+                clientRepository.searchByKeyword(q).stream()
+                        .sorted(Comparator.comparing(Client::getId))
+                        .map(this::toClientDto)
+                        .toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ClientDto> sink) {
+        clientJdbcRepository.streamAll(STREAM_FETCH_SIZE, r -> sink.accept(toClientDto(r)));
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ClientDto update(Long id, UpdateClientRequest request) {
         if (request.getName() == null || request.getName().isBlank()) {
             throw new BadRequestException("Client name must not be blank");
@@ -112,56 +177,133 @@ public class ClientServiceImpl implements ClientService {
             throw new BadRequestException("Client email must not be blank");
         }
 
-        Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Client not found: id=" + id));
+        return optimisticRetry.execute("client.update", () -> {
+            Client client = clientRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Client not found: id=" + id));
 
-        clientRepository.findByEmailIgnoreCase(request.getEmail().trim())
-                .filter(other -> !other.getId().equals(id))
-                .ifPresent(other -> { throw new ConflictException("Email already exists: " + request.getEmail()); });
+            clientRepository.findByNaturalEmail(Client.normalizeEmail(request.getEmail()))
+                    .filter(other -> !other.getId().equals(id))
+                    .ifPresent(other -> { throw new ConflictException(ErrorCode.DUPLICATE_EMAIL, "Email already exists: " + request.getEmail()); });
 
-        client.setName(request.getName().trim());
-        client.setEmail(request.getEmail().trim());
-        client.setAddress(request.getAddress() == null ? null : request.getAddress().trim());
+            client.setName(request.getName().trim());
+            client.setEmail(Client.normalizeEmail(request.getEmail()));
+            client.setAddress(request.getAddress() == null ? null : request.getAddress().trim());
 
-        return toClientDto(clientRepository.save(client));
+            return toClientDto(clientRepository.save(client));
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ClientDto updateActiveStatus(Long id, boolean active) {
-        Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Client not found: id=" + id));
+        Client client = optimisticRetry.execute("client.updateActiveStatus", () -> {
+            Client c = clientRepository.findById(id)
+                    .orElseThrow(() -> new NotFoundException("Client not found: id=" + id));
 
-        if (active) {
-            client.setActive(true);
-            client.setDeactivatedAt(null);
-        } else {
-            if (client.isActive()) {
-                client.setActive(false);
-                client.setDeactivatedAt(LocalDateTime.now());
+            if (active) {
+                c.setActive(true);
+                c.setDeactivatedAt(null);
+            } else {
+                if (c.isActive()) {
+                    c.setActive(false);
+                    c.setDeactivatedAt(timeSource.now());
+                }
             }
-        }
-        return toClientDto(clientRepository.save(client));
+            return clientRepository.save(c);
+        });
+        // После коммита: заказы в обработке узнают о деактивации сразу, а не после задержки
+        activeClientRegistry.update(client.getId(), client.isActive(), client.getDeactivatedAt(), client.getVersion());
+        return toClientDto(client);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public List<OrderDto> listOrdersForClient(Long clientId) {
-        clientRepository.findById(clientId)
-                .orElseThrow(() -> new NotFoundException("Client not found: id=" + clientId));
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkClientStatusResultDto updateActiveStatusBulk(BulkClientStatusRequest request) {
+        boolean active = request.getActive();
+        boolean hasIds = request.getIds() != null && !request.getIds().isEmpty();
+        boolean hasQuery = request.getQuery() != null && !request.getQuery().isBlank();
+        if (hasIds == hasQuery) {
+            throw new BadRequestException("Exactly one of 'ids' or 'query' must be provided");
+        }
 
-        return orderRepository.findBySupplierIdOrConsumerId(clientId, clientId).stream()
-                .sorted(Comparator.comparing(Order::getId))
-                .map(this::toOrderDto)
-                .toList();
+        List<Long> ids;
+        if (hasIds) {
+            ids = request.getIds().stream().filter(Objects::nonNull).distinct().toList();
+        } else {
+            String q = request.getQuery().trim();
+            if (q.length() < 3) {
+                throw new BadRequestException("Search keyword must be at least 3 characters");
+            }
+            ids = clientRepository.searchIdsByKeyword(q);
+        }
+
+        long startedAt = System.nanoTime();
+        int chunkSize = Math.max(1, bulkChunkSize);
+        List<BulkClientStatusItemDto> results = new ArrayList<>(ids.size());
+        int updated = 0, unchanged = 0, notFound = 0, chunks = 0;
+
+        // Каждая порция — отдельная короткая транзакция с set-based UPDATE
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            StatusChunk r = transactionTemplate.execute(status -> applyStatusChunk(chunk, active));
+            chunks++;
+
+            Set<Long> changed = new HashSet<>(r.changed());
+            Map<Long, ClientStatusView> states = new HashMap<>();
+            for (ClientStatusView v : r.states()) {
+                states.put(v.getId(), v);
+                if (changed.contains(v.getId())) {
+                    activeClientRegistry.update(v.getId(), Boolean.TRUE.equals(v.getActive()), v.getDeactivatedAt(), v.getVersion());
+                }
+            }
+            for (Long id : chunk) {
+                BulkClientStatusOutcome outcome;
+                if (!states.containsKey(id)) {
+                    outcome = BulkClientStatusOutcome.NOT_FOUND;
+                    notFound++;
+                } else if (changed.contains(id)) {
+                    outcome = BulkClientStatusOutcome.UPDATED;
+                    updated++;
+                } else {
+                    outcome = BulkClientStatusOutcome.UNCHANGED;
+                    unchanged++;
+                }
+                results.add(BulkClientStatusItemDto.builder().id(id).outcome(outcome).build());
+            }
+        }
+
+        return BulkClientStatusResultDto.builder()
+                .active(active)
+                .requested(ids.size())
+                .updated(updated)
+                .unchanged(unchanged)
+                .notFound(notFound)
+                .chunks(chunks)
+                .elapsedMillis((System.nanoTime() - startedAt) / 1_000_000)
+                .results(results)
+                .build();
+    }
+
+    private StatusChunk applyStatusChunk(List<Long> ids, boolean active) {
+        List<Long> changing = clientRepository.lockIdsByActive(ids, !active);
+        if (!changing.isEmpty()) {
+            // deactivatedAt сравнивается с finishedAt заказов — с тех же часов; updatedAt — аудит
+            clientRepository.bulkUpdateActive(changing, active, active ? null : timeSource.now(), LocalDateTime.now());
+        }
+        return new StatusChunk(changing, clientRepository.findStatusByIdIn(ids));
     }
 
     @Override
     @Transactional(readOnly = true)
     public ClientProfitDto getProfit(Long clientId) {
+        return requestCoalescer.execute("client.profit", clientId, () -> loadProfit(clientId));
+    }
+
+    private ClientProfitDto loadProfit(Long clientId) {
         Client client = clientRepository.findById(clientId)
                 .orElseThrow(() -> new NotFoundException("Client not found: id=" + clientId));
 
-        BigDecimal profit = orderRepository.computeProfit(client.getId());
+        BigDecimal profit = client.getArchivedBalance().add(orderRepository.computeProfit(client.getId()));
         return ClientProfitDto.builder()
                 .clientId(client.getId())
                 .name(client.getName())
@@ -171,6 +313,18 @@ public class ClientServiceImpl implements ClientService {
                 .build();
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getProfitETag(Long clientId) {
+        return requestCoalescer.execute("client.profitETag", clientId, () ->
+                clientRepository.findUpdatedAtById(clientId)
+                        .map(updatedAt -> {
+                            ClientLedgerStamp stamp = orderRepository.computeLedgerStamp(clientId);
+                            return ETags.weak("profit", clientId, updatedAt, stamp.getOrderCount(), stamp.getLastUpdatedAt());
+                        })
+                        .orElse(null));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<ClientProfitDto> findClientsByProfitRange(BigDecimal min, BigDecimal max) {
@@ -178,24 +332,27 @@ public class ClientServiceImpl implements ClientService {
             throw new BadRequestException("min must be <= max");
         }
 
-        return clientRepository.findAll().stream()
-                .map(c -> {
-                    BigDecimal p = orderRepository.computeProfit(c.getId());
-                    return ClientProfitDto.builder()
-                            .clientId(c.getId())
-                            .name(c.getName())
-                            .email(c.getEmail())
-                            .active(c.isActive())
-                            .profit(p)
-                            .build();
-                })
-                .filter(dto -> {
-                    boolean ok = true;
-                    if (min != null) ok = ok && dto.getProfit().compareTo(min) >= 0;
-                    if (max != null) ok = ok && dto.getProfit().compareTo(max) <= 0;
-                    return ok;
+        Money lo;
+        Money hi;
+        try {
+            lo = min == null ? null : Money.of(min);
+            hi = max == null ? null : Money.of(max);
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("min/max are out of the amount range");
+        }
+
+        return clientRepository.findAllWithProfit().stream()
+                .filter(v -> {
+                    Money p = Money.of(v.getProfit());
+                    return (lo == null || !p.isLessThan(lo)) && (hi == null || !p.isGreaterThan(hi));
                 })
-                .sorted(Comparator.comparing(ClientProfitDto::getClientId))
+                .map(v -> ClientProfitDto.builder()
+                        .clientId(v.getClientId())
+                        .name(v.getName())
+                        .email(v.getEmail())
+                        .active(Boolean.TRUE.equals(v.getActive()))
+                        .profit(v.getProfit())
+                        .build())
                 .toList();
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.example.demo.service;
+
+import java.util.StringJoiner;
+
+/**
+ * Слабые ETag для условных GET: строятся из версии строки без загрузки сущности.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String weak(String kind, Object... parts) {
+        StringJoiner joiner = new StringJoiner("-", "W/\"" + kind + "-", "\"");
+        for (Object part : parts) {
+            joiner.add(String.valueOf(part));
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.InvariantReportDto;
+import com.example.demo.dto.InvariantViolationDto;
+import com.example.demo.model.Money;
+import com.example.demo.repository.OrderJdbcRepository;
+import com.example.demo.repository.OrderJdbcRepository.DuplicateKeyRow;
+import com.example.demo.repository.OrderJdbcRepository.LateOrderRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Проверка инвариантов по таблице orders после нагрузочного прогона:
+ * уникальность бизнес-ключа, баланс потребителя ни в какой момент не ниже -1000,
+ * ни один заказ не завершился после деактивации своего клиента.
+ * <p>
+ * Баланс восстанавливается проходом по заказам в порядке (finishedAt, id): commit-фаза
+ * вставляет заказ сразу по окончании обработки под блокировкой обоих клиентов, а импорт
+ * сохраняет исходный finishedAt, тогда как id импортированных заказов с порядком коммитов
+ * не связаны. Изменённые заказы учитываются с текущей ценой, удалённые — не учитываются.
+ * Деактивация проверяется по текущему deactivatedAt: окна неактивности, закрытые
+ * повторной активацией, в таблице не сохраняются.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvariantVerifier {
+
+    public static final String DUPLICATE_BUSINESS_KEY = "duplicate_business_key";
+    public static final String CREDIT_LIMIT_BREACHED = "credit_limit_breached";
+    public static final String FINISHED_AFTER_DEACTIVATION = "finished_after_deactivation";
+
+    private static final int FETCH_SIZE = 1_000;
+    private static final int MAX_LISTED = 100;
+
+    private final OrderJdbcRepository orderJdbcRepository;
+
+    @Transactional(readOnly = true)
+    public InvariantReportDto verify() {
+        long t0 = System.nanoTime();
+        Map<String, Long> counts = new TreeMap<>();
+        List<InvariantViolationDto> listed = new ArrayList<>();
+        counts.put(DUPLICATE_BUSINESS_KEY, 0L);
+        counts.put(CREDIT_LIMIT_BREACHED, 0L);
+        counts.put(FINISHED_AFTER_DEACTIVATION, 0L);
+
+        for (DuplicateKeyRow d : orderJdbcRepository.findDuplicateBusinessKeys()) {
+            report(counts, listed, InvariantViolationDto.builder()
+                    .invariant(DUPLICATE_BUSINESS_KEY)
+                    .clientId(d.consumerId())
+                    .detail(d.count() + " orders with key (" + d.titleKey() + ", " + d.supplierId() + ", " + d.consumerId() + ")")
+                    .build());
+        }
+
+        Map<Long, Long> balances = new HashMap<>();
+        long[] checkedOrders = {0};
+        orderJdbcRepository.streamAllByFinishedAt(FETCH_SIZE, o -> {
+            checkedOrders[0]++;
+            long cents = Money.of(o.price()).cents();
+            balances.merge(o.supplierId(), cents, Long::sum);
+            long consumerBalance = balances.merge(o.consumerId(), -cents, Long::sum);
+            if (Money.ofCents(consumerBalance).isLessThan(OrderServiceImpl.CREDIT_LIMIT)) {
+                report(counts, listed, InvariantViolationDto.builder()
+                        .invariant(CREDIT_LIMIT_BREACHED)
+                        .orderId(o.id())
+                        .clientId(o.consumerId())
+                        .detail("balance " + Money.ofCents(consumerBalance).toBigDecimal() + " after order")
+                        .build());
+            }
+        });
+
+        for (LateOrderRow l : orderJdbcRepository.findFinishedAfterDeactivation()) {
+            report(counts, listed, InvariantViolationDto.builder()
+                    .invariant(FINISHED_AFTER_DEACTIVATION)
+                    .orderId(l.orderId())
+                    .clientId(l.clientId())
+                    .detail("finished " + l.finishedAt() + ", deactivated " + l.deactivatedAt())
+                    .build());
+        }
+
+        boolean ok = counts.values().stream().allMatch(c -> c == 0);
+        return InvariantReportDto.builder()
+                .ok(ok)
+                .checkedOrders(checkedOrders[0])
+                .checkedClients(balances.size())
+                .elapsedMillis((System.nanoTime() - t0) / 1_000_000)
+                .violationCounts(counts)
+                .violations(listed)
+                .build();
+    }
+
+    private static void report(Map<String, Long> counts, List<InvariantViolationDto> listed, InvariantViolationDto v) {
+        counts.merge(v.getInvariant(), 1L, Long::sum);
+        if (listed.size() < MAX_LISTED) {
+            listed.add(v);
+        }
+    }
+}
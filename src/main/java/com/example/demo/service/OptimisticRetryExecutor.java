@@ -0,0 +1,100 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OptimisticRetryStatsDto;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Выполняет read-modify-write в отдельной транзакции и повторяет её
+ * при конфликте {@code @Version} с ограниченным числом попыток и
+ * случайной задержкой (full jitter). Ведёт счётчики конфликтов по операциям.
+ * <p>
+ * Вызывающий метод не должен быть внутри транзакции, иначе повтор
+ * присоединится к уже откатываемой транзакции.
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   @Value("${app.retry.optimistic.max-attempts:5}") int maxAttempts,
+                                   @Value("${app.retry.optimistic.base-backoff-ms:5}") long baseBackoffMillis,
+                                   @Value("${app.retry.optimistic.max-backoff-ms:200}") long maxBackoffMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMillis = Math.max(1, baseBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.baseBackoffMillis, maxBackoffMillis);
+    }
+
+    public <T> T execute(String operation, Supplier<T> work) {
+        Stats s = stats.computeIfAbsent(operation, k -> new Stats());
+        s.calls.increment();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException e) {
+                s.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    s.exhausted.increment();
+                    log.debug("Optimistic conflict on {} not resolved after {} attempts", operation, attempt);
+                    throw new ConflictException(ErrorCode.CONCURRENT_MODIFICATION, "Concurrent modification, please retry", e);
+                }
+                s.retries.increment();
+                backoff(attempt);
+            }
+        }
+    }
+
+    public List<OptimisticRetryStatsDto> snapshot() {
+        return stats.entrySet().stream()
+                .map(e -> OptimisticRetryStatsDto.builder()
+                        .operation(e.getKey())
+                        .calls(e.getValue().calls.sum())
+                        .conflicts(e.getValue().conflicts.sum())
+                        .retries(e.getValue().retries.sum())
+                        .exhausted(e.getValue().exhausted.sum())
+                        .build())
+                .sorted(Comparator.comparing(OptimisticRetryStatsDto::getOperation))
+                .toList();
+    }
+
+    private void backoff(int attempt) {
+        long cap = Math.min(maxBackoffMillis, baseBackoffMillis << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(cap + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException(ErrorCode.CONCURRENT_MODIFICATION, "Interrupted while retrying concurrent modification");
+        }
+    }
+
+    private static final class Stats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder conflicts = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ArchiveResultDto;
+import com.example.demo.processing.TimeSource;
+import com.example.demo.repository.ClientRepository;
+import com.example.demo.repository.OrderJdbcRepository;
+import com.example.demo.repository.OrderJdbcRepository.OrderRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Переносит заказы, завершившиеся раньше горизонта, из orders в orders_archive
+ * и сворачивает их суммы в archivedBalance клиентов. Горячая таблица остаётся
+ * маленькой, поэтому computeProfit, проверка дубликатов и списки не растут вместе с историей.
+ * <p>
+ * Порция переносится в одной транзакции: строки заказов, затем клиенты (оба в порядке id).
+ * Commit-фаза заказа держит те же блокировки клиентов, поэтому проверка лимита видит
+ * либо заказ в orders, либо его сумму в archivedBalance, но не оба и не ни одного.
+ */
+@Slf4j
+@Component
+public class OrderArchiver implements SmartLifecycle {
+
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final ClientRepository clientRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TimeSource timeSource;
+    private final boolean enabled;
+    private final Duration horizon;
+    private final int batchSize;
+    private final long intervalMillis;
+
+    private volatile boolean running;
+    private ScheduledExecutorService scheduler;
+
+    public OrderArchiver(OrderJdbcRepository orderJdbcRepository,
+                         ClientRepository clientRepository,
+                         TransactionTemplate transactionTemplate,
+                         TimeSource timeSource,
+                         @Value("${app.orders.archive.enabled:false}") boolean enabled,
+                         @Value("${app.orders.archive.horizon:P30D}") Duration horizon,
+                         @Value("${app.orders.archive.batch-size:500}") int batchSize,
+                         @Value("${app.orders.archive.interval-ms:60000}") long intervalMillis) {
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.clientRepository = clientRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.timeSource = timeSource;
+        this.enabled = enabled;
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled) {
+            log.info("Order archiving disabled");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Archiving orders finished more than {} ago every {} ms", horizon, intervalMillis);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Архивирует все заказы старше горизонта порциями по batch-size.
+     */
+    public ArchiveResultDto archive() {
+        long startNanos = System.nanoTime();
+        LocalDateTime finishedBefore = timeSource.now().minus(horizon);
+        long archived = 0;
+        int batches = 0;
+        while (true) {
+            Integer moved = transactionTemplate.execute(status -> archiveBatch(finishedBefore));
+            if (moved == null || moved == 0) {
+                break;
+            }
+            archived += moved;
+            batches++;
+        }
+        return ArchiveResultDto.builder()
+                .finishedBefore(finishedBefore)
+                .archived(archived)
+                .batches(batches)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+                .build();
+    }
+
+    private int archiveBatch(LocalDateTime finishedBefore) {
+        List<Long> candidates = orderJdbcRepository.findArchivableIds(finishedBefore, batchSize);
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        // Заказ мог быть удалён или перенесён другим узлом между выборкой и блокировкой
+        List<OrderRow> rows = orderJdbcRepository.lockForArchive(candidates);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, BigDecimal> deltas = new TreeMap<>();
+        for (OrderRow r : rows) {
+            deltas.merge(r.supplierId(), r.price(), BigDecimal::add);
+            deltas.merge(r.consumerId(), r.price().negate(), BigDecimal::add);
+        }
+        clientRepository.lockIds(deltas.keySet());
+
+        List<Long> ids = rows.stream().map(OrderRow::id).toList();
+        orderJdbcRepository.copyToArchive(ids, timeSource.now());
+        // Массовый update инвалидирует регион clients кэша второго уровня
+        LocalDateTime updatedAt = LocalDateTime.now();
+        deltas.forEach((clientId, delta) -> {
+            if (delta.signum() != 0) {
+                clientRepository.addArchivedBalance(clientId, delta, updatedAt);
+            }
+        });
+        return orderJdbcRepository.deleteByIds(ids);
+    }
+
+    private void archiveQuietly() {
+        try {
+            ArchiveResultDto result = archive();
+            if (result.getArchived() > 0) {
+                log.info("Archived {} orders in {} batches ({} ms)",
+                        result.getArchived(), result.getBatches(), result.getDurationMs());
+            }
+        } catch (Exception e) {
+            log.warn("Order archiving failed: {}", e.getMessage());
+        }
+    }
+}
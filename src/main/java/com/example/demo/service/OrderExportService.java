@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OrderImportResultDto;
+import com.example.demo.exception.BadRequestException;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public interface OrderExportService {
+
+    enum Compression {
+        NONE, GZIP;
+
+        public static Compression parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NONE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unsupported compression: " + value);
+            }
+        }
+    }
+
+    void exportOrders(OutputStream out, Compression compression);
+    OrderImportResultDto importOrders(InputStream in);
+}
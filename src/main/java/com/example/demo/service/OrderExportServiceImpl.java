@@ -0,0 +1,212 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.OrderImportResultDto;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.model.Money;
+import com.example.demo.repository.OrderJdbcRepository;
+import com.example.demo.repository.OrderJdbcRepository.OrderRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Бинарный снапшот заказов.
+ * <p>
+ * Формат: int MAGIC, short VERSION, затем записи вида [int длина][payload], в конце int -1.
+ * Payload: id, supplierId, consumerId, цена в копейках (scale 2), startedAt/finishedAt/createdAt
+ * в микросекундах UTC, title в modified UTF-8.
+ * <p>
+ * Импорт — восстановление снапшота, а не создание заказов: исходные id сохраняются,
+ * правила активности клиентов и лимита -1000 не применяются. Проверяются только ограничения
+ * схемы и бизнес-ключ/id относительно архива. Весь импорт — одна транзакция: при любой
+ * ошибке не загружается ничего.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class OrderExportServiceImpl implements OrderExportService {
+
+    private static final int MAGIC = 0x4F524453; // "ORDS"
+    private static final short FORMAT_VERSION = 1;
+    private static final int END_OF_STREAM = -1;
+
+    private static final int FETCH_SIZE = 1_000;
+    private static final int IMPORT_BATCH_SIZE = 1_000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // 7 long-полей + writeUTF: 2 байта длины и до 3 байт на символ title (не длиннее 200)
+    private static final int MAX_TITLE_LENGTH = 200;
+    private static final int MAX_RECORD_LENGTH = 7 * Long.BYTES + 2 + 3 * MAX_TITLE_LENGTH;
+
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportOrders(OutputStream out, Compression compression) {
+        try {
+            OutputStream target = compression == Compression.GZIP
+                    ? new GZIPOutputStream(out, BUFFER_SIZE)
+                    : out;
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(target, BUFFER_SIZE));
+            data.writeInt(MAGIC);
+            data.writeShort(FORMAT_VERSION);
+
+            ByteArrayOutputStream recordBuf = new ByteArrayOutputStream(256);
+            DataOutputStream record = new DataOutputStream(recordBuf);
+
+            orderJdbcRepository.streamAll(FETCH_SIZE, row -> {
+                try {
+                    recordBuf.reset();
+                    writeRecord(record, row);
+                    data.writeInt(recordBuf.size());
+                    recordBuf.writeTo(data);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            data.writeInt(END_OF_STREAM);
+            data.flush();
+            if (target instanceof GZIPOutputStream gzip) {
+                gzip.finish();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderImportResultDto importOrders(InputStream in) {
+        return transactionTemplate.execute(status -> importInTransaction(in));
+    }
+
+    private OrderImportResultDto importInTransaction(InputStream in) {
+        try {
+            BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+            boolean compressed = isGzip(buffered);
+            DataInputStream data = new DataInputStream(compressed
+                    ? new BufferedInputStream(new GZIPInputStream(buffered, BUFFER_SIZE), BUFFER_SIZE)
+                    : buffered);
+
+            if (data.readInt() != MAGIC) {
+                throw new BadRequestException("Not an order snapshot");
+            }
+            short version = data.readShort();
+            if (version != FORMAT_VERSION) {
+                throw new BadRequestException("Unsupported snapshot version: " + version);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<OrderRow> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            long imported = 0;
+            byte[] payload = new byte[MAX_RECORD_LENGTH];
+            int length;
+            while ((length = data.readInt()) != END_OF_STREAM) {
+                // Длина приходит из недоверенного потока: без верхней границы — аллокация до 2 ГБ
+                if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                    throw new BadRequestException("Corrupted snapshot: record length " + length);
+                }
+                data.readFully(payload, 0, length);
+                OrderRow row = readRecord(new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+                if (row.title().trim().length() > MAX_TITLE_LENGTH) {
+                    throw new BadRequestException("Corrupted snapshot: title too long in order id=" + row.id());
+                }
+                batch.add(row);
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    imported += insertBatch(batch, now);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                imported += insertBatch(batch, now);
+            }
+            // Последний шаг транзакции: identity не уходит назад и не отстаёт от импортированных id
+            orderJdbcRepository.restartIdentityAfterMaxId();
+
+            return OrderImportResultDto.builder()
+                    .imported(imported)
+                    .compressed(compressed)
+                    .build();
+        } catch (EOFException e) {
+            throw new BadRequestException("Truncated snapshot", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int insertBatch(List<OrderRow> batch, LocalDateTime now) {
+        int inserted = orderJdbcRepository.insertBatch(batch, now);
+        if (inserted < batch.size()) {
+            throw new ConflictException(ErrorCode.CONFLICT, "Snapshot orders conflict with archived orders (id or title/supplier/consumer)");
+        }
+        return inserted;
+    }
+
+    private static void writeRecord(DataOutputStream out, OrderRow row) throws IOException {
+        out.writeLong(row.id());
+        out.writeLong(row.supplierId());
+        out.writeLong(row.consumerId());
+        out.writeLong(Money.of(row.price()).cents());
+        out.writeLong(toEpochMicros(row.startedAt()));
+        out.writeLong(toEpochMicros(row.finishedAt()));
+        out.writeLong(toEpochMicros(row.createdAt()));
+        out.writeUTF(row.title());
+    }
+
+    private static OrderRow readRecord(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        long supplierId = in.readLong();
+        long consumerId = in.readLong();
+        BigDecimal price = Money.ofCents(in.readLong()).toBigDecimal();
+        LocalDateTime startedAt = fromEpochMicros(in.readLong());
+        LocalDateTime finishedAt = fromEpochMicros(in.readLong());
+        LocalDateTime createdAt = fromEpochMicros(in.readLong());
+        String title = in.readUTF();
+        return new OrderRow(id, title, supplierId, consumerId, price, startedAt, finishedAt, createdAt);
+    }
+
+    private static boolean isGzip(BufferedInputStream in) throws IOException {
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        return b1 == (GZIPInputStream.GZIP_MAGIC & 0xFF) && b2 == (GZIPInputStream.GZIP_MAGIC >> 8);
+    }
+
+    private static long toEpochMicros(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + t.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromEpochMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(
+                Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000,
+                ZoneOffset.UTC
+        );
+    }
+}
@@ -4,14 +4,20 @@ import com.example.demo.dto.CreateOrderRequest;
 import com.example.demo.dto.OrderDto;
 import com.example.demo.dto.UpdateOrderRequest;
 
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface OrderService {
 
-    OrderDto create(CreateOrderRequest request);
+    /**
+     * Блокирующее создание; onCommit выполняется в транзакции commit-фазы,
+     * исключение из него откатывает заказ.
+     */
+    OrderDto create(CreateOrderRequest request, Consumer<OrderDto> onCommit);
+    CompletableFuture<OrderDto> createAsync(CreateOrderRequest request);
     OrderDto getById(Long id);
-    List<OrderDto> listAll();
-    List<OrderDto> listByClient(Long clientId);
+    String getETag(Long id);
+    void streamAll(Long clientId, Consumer<OrderDto> sink);
     OrderDto update(Long id, UpdateOrderRequest request);
     void delete(Long id);
 }
\ No newline at end of file
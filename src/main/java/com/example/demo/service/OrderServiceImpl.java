@@ -5,30 +5,62 @@ import com.example.demo.dto.OrderDto;
 import com.example.demo.dto.UpdateOrderRequest;
 import com.example.demo.exception.BadRequestException;
 import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.DomainException;
+import com.example.demo.exception.ErrorCode;
 import com.example.demo.exception.NotFoundException;
-import com.example.demo.model.Client;
+import com.example.demo.logging.RequestStages;
+import com.example.demo.model.ArchivedOrder;
+import com.example.demo.model.Money;
 import com.example.demo.model.Order;
+import com.example.demo.processing.ProcessingExecutors;
+import com.example.demo.processing.ProcessingTimeModel;
+import com.example.demo.processing.TimeSource;
+import com.example.demo.repository.ArchivedOrderRepository;
 import com.example.demo.repository.ClientRepository;
+import com.example.demo.repository.OrderJdbcRepository;
+import com.example.demo.repository.OrderJdbcRepository.InsertRejection;
+import com.example.demo.repository.OrderJdbcRepository.OrderRow;
 import com.example.demo.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Locale;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class OrderServiceImpl implements OrderService {
 
+    static final Money CREDIT_LIMIT = Money.ofUnits(-1000);
+
+    private static final int STREAM_FETCH_SIZE = 1_000;
+    private static final String BUSINESS_KEY_CONSTRAINT = "uk_order_business_key";
+
     private final OrderRepository orderRepository;
+    private final ArchivedOrderRepository archivedOrderRepository;
     private final ClientRepository clientRepository;
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final OptimisticRetryExecutor optimisticRetry;
+    private final ActiveClientRegistry activeClientRegistry;
+    private final ProcessingTimeModel processingTimeModel;
+    private final TimeSource timeSource;
+    private final ProcessingExecutors processingExecutors;
+    private final PlatformTransactionManager transactionManager;
 
     private OrderDto toDto(Order o) {
         return OrderDto.builder()
@@ -43,125 +75,358 @@ public class OrderServiceImpl implements OrderService {
                 .build();
     }
 
-    private Client getClientOr404(Long id, String role) {
-        return clientRepository.findById(id)
+    private OrderDto toDto(ArchivedOrder a) {
+        return OrderDto.builder()
+                .id(a.getId())
+                .title(a.getTitle())
+                .supplierId(a.getSupplierId())
+                .consumerId(a.getConsumerId())
+                .price(a.getPrice())
+                .startedAt(a.getStartedAt())
+                .finishedAt(a.getFinishedAt())
+                .createdAt(a.getCreatedAt())
+                .build();
+    }
+
+    private OrderDto toDto(OrderRow r) {
+        return OrderDto.builder()
+                .id(r.id())
+                .title(r.title())
+                .supplierId(r.supplierId())
+                .consumerId(r.consumerId())
+                .price(r.price())
+                .startedAt(r.startedAt())
+                .finishedAt(r.finishedAt())
+                .createdAt(r.createdAt())
+                .build();
+    }
+
+    private boolean isActiveOr404(Long id, String role) {
+        return clientRepository.findActiveById(id)
                 .orElseThrow(() -> new NotFoundException(role + " not found: id=" + id));
     }
 
-    @Override
-    @Transactional(isolation = Isolation.SERIALIZABLE)
-    public OrderDto create(CreateOrderRequest request) {
-        if (request.getSupplierId().equals(request.getConsumerId())) {
-            throw new BadRequestException("Supplier and consumer must be different");
+    private boolean existsBusinessKey(String titleKey, Long supplierId, Long consumerId) {
+        return orderRepository.existsByTitleKeyAndSupplierIdAndConsumerId(titleKey, supplierId, consumerId)
+                || archivedOrderRepository.existsByTitleKeyAndSupplierIdAndConsumerId(titleKey, supplierId, consumerId);
+    }
+
+    private void rejectIfArchived(Long id) {
+        if (archivedOrderRepository.existsById(id)) {
+            throw new ConflictException(ErrorCode.CONFLICT, "Order is archived and read-only: id=" + id);
         }
-        if (request.getPrice() == null || request.getPrice().compareTo(BigDecimal.ONE) < 0) {
-            throw new BadRequestException("Price must be positive and >= 1");
+    }
+
+    /**
+     * Заказ, прошедший предварительные проверки и ожидающий окончания обработки.
+     */
+    private record PendingOrder(CreateOrderRequest request, Money price, LocalDateTime started, LocalDateTime deadline) {
+    }
+
+    /**
+     * Результат асинхронного заказа. Отмена и commit-фаза соревнуются за один CAS:
+     * отменённый заказ не коммитится, а начавшуюся commit-фазу отменить нельзя
+     * ({@link #cancel} вернёт false, и результат придёт после коммита).
+     */
+    private static final class PendingResult extends CompletableFuture<OrderDto> {
+
+        private enum State { PENDING, COMMITTING, CANCELLED }
+
+        private final AtomicReference<State> state = new AtomicReference<>(State.PENDING);
+        private volatile boolean cancelRequested;
+        private volatile CompletableFuture<?> timer;
+
+        void arm(CompletableFuture<?> timer) {
+            this.timer = timer;
+            if (isCancelled()) {
+                timer.cancel(false);
+            }
         }
 
-        Client supplier0 = getClientOr404(request.getSupplierId(), "Supplier");
-        Client consumer0 = getClientOr404(request.getConsumerId(), "Consumer");
-        if (!supplier0.isActive()) throw new BadRequestException("Supplier is inactive: id=" + supplier0.getId());
-        if (!consumer0.isActive()) throw new BadRequestException("Consumer is inactive: id=" + consumer0.getId());
+        boolean startCommit() {
+            return state.compareAndSet(State.PENDING, State.COMMITTING);
+        }
 
-        LocalDateTime started = LocalDateTime.now();
-        long delayMillis = ThreadLocalRandom.current().nextLong(1_000, 10_001);
-        try {
-            Thread.sleep(delayMillis);
-        } catch (InterruptedException ie) {
-            Thread.currentThread().interrupt();
+        /**
+         * Commit-фаза ничего не решила, обработка продолжается. false — пока шла
+         * commit-фаза, запрос отменили: заказ отменяется вместо нового таймера.
+         */
+        boolean resume() {
+            state.set(State.PENDING);
+            if (cancelRequested) {
+                cancel(false);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            cancelRequested = true;
+            if (!state.compareAndSet(State.PENDING, State.CANCELLED)) {
+                return isCancelled();
+            }
+            CompletableFuture<?> armed = timer;
+            if (armed != null) {
+                armed.cancel(false);
+            }
+            return super.cancel(mayInterruptIfRunning);
         }
-        LocalDateTime finished = LocalDateTime.now();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderDto create(CreateOrderRequest request, Consumer<OrderDto> onCommit) {
+        PendingOrder pending = readTransaction().execute(status -> validate(request));
+        RequestStages.mark("validate");
 
-        Client supplier = clientRepository.findByIdForUpdate(request.getSupplierId())
-                .orElseThrow(() -> new NotFoundException("Supplier not found: id=" + request.getSupplierId()));
-        Client consumer = clientRepository.findByIdForUpdate(request.getConsumerId())
-                .orElseThrow(() -> new NotFoundException("Consumer not found: id=" + request.getConsumerId()));
+        while (true) {
+            LocalDateTime finished;
+            boolean woken;
+            // Ждём окончания обработки, но просыпаемся сразу, если кого-то из клиентов деактивировали.
+            // Отказывает только commit-фаза по состоянию в БД: локальное событие могло устареть
+            CountDownLatch wakeUp = new CountDownLatch(1);
+            try (ActiveClientRegistry.Subscription ignored = activeClientRegistry.subscribe(
+                    List.of(request.getSupplierId(), request.getConsumerId()),
+                    clientId -> wakeUp.countDown())) {
+                finished = timeSource.awaitUntil(pending.deadline(), wakeUp);
+                woken = wakeUp.getCount() == 0;
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                finished = timeSource.now();
+                woken = false;
+            }
+            RequestStages.mark("processing");
 
-        if (!supplier.isActive() || (supplier.getDeactivatedAt() != null && !finished.isBefore(supplier.getDeactivatedAt()))) {
-            throw new BadRequestException("Supplier became inactive during processing");
+            LocalDateTime finishedAt = finished;
+            boolean early = woken;
+            OrderDto order = commitTransaction().execute(status -> {
+                OrderDto committed = commit(pending, finishedAt, early);
+                if (committed != null) {
+                    onCommit.accept(committed);
+                }
+                return committed;
+            });
+            if (order != null) {
+                return order;
+            }
         }
-        if (!consumer.isActive() || (consumer.getDeactivatedAt() != null && !finished.isBefore(consumer.getDeactivatedAt()))) {
-            throw new BadRequestException("Consumer became inactive during processing");
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<OrderDto> createAsync(CreateOrderRequest request) {
+        PendingOrder pending = readTransaction().execute(status -> validate(request));
+        RequestStages.mark("validate");
+
+        // Отмена (таймаут HTTP-запроса) снимает таймер; заказ создаётся, только если
+        // commit-фаза выиграла CAS у отмены
+        PendingResult result = new PendingResult();
+        awaitAndCommit(pending, result, RequestStages.detach());
+        return result;
+    }
+
+    /**
+     * Во время обработки заказ не держит поток: только таймер и подписку на деактивацию.
+     * Деактивация клиента завершает таймер досрочно; решение об отказе — за commit-фазой,
+     * а если клиент под блокировкой снова активен, таймер ставится на оставшееся время.
+     */
+    private void awaitAndCommit(PendingOrder pending, PendingResult result, RequestStages.Recorder stages) {
+        CreateOrderRequest request = pending.request();
+        CompletableFuture<LocalDateTime> timer = timeSource.at(pending.deadline());
+        AtomicBoolean woken = new AtomicBoolean();
+        ActiveClientRegistry.Subscription subscription = activeClientRegistry.subscribe(
+                List.of(request.getSupplierId(), request.getConsumerId()),
+                clientId -> {
+                    woken.set(true);
+                    timer.complete(timeSource.now());
+                });
+        result.arm(timer);
+        timer.whenCompleteAsync((finished, timerError) -> {
+            subscription.close();
+            if (!result.startCommit()) {
+                return;
+            }
+            try (RequestStages.Scope ignored = RequestStages.resume(stages)) {
+                RequestStages.mark("processing");
+                OrderDto order = commitTransaction().execute(status -> commit(pending, finished, woken.get()));
+                if (order != null) {
+                    result.complete(order);
+                } else if (result.resume()) {
+                    awaitAndCommit(pending, result, stages);
+                }
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }, processingExecutors.commit());
+    }
+
+    private TransactionTemplate readTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return tx;
+    }
+
+    private TransactionTemplate commitTransaction() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        return tx;
+    }
+
+    /**
+     * Проверки до обработки: короткая читающая транзакция, соединение
+     * не удерживается на время ожидания.
+     */
+    private PendingOrder validate(CreateOrderRequest request) {
+        if (request.getSupplierId().equals(request.getConsumerId())) {
+            throw new BadRequestException("Supplier and consumer must be different");
         }
+        Money price = PriceValidator.validate(request.getPrice());
 
-        BigDecimal currentProfitConsumer = orderRepository.computeProfit(consumer.getId());
-        BigDecimal profitAfter = currentProfitConsumer.subtract(request.getPrice());
-        if (profitAfter.compareTo(BigDecimal.valueOf(-1000)) < 0) {
-            throw new BadRequestException("Consumer profit would drop below -1000");
+        // Скалярная проверка без загрузки сущностей: commit-фаза читает клиентов заново под блокировкой
+        if (!isActiveOr404(request.getSupplierId(), "Supplier")) {
+            throw new BadRequestException(ErrorCode.CLIENT_INACTIVE, "Supplier is inactive: id=" + request.getSupplierId());
+        }
+        if (!isActiveOr404(request.getConsumerId(), "Consumer")) {
+            throw new BadRequestException(ErrorCode.CLIENT_INACTIVE, "Consumer is inactive: id=" + request.getConsumerId());
         }
 
-        String normalizedTitle = request.getTitle().trim();
-        orderRepository.findByTitleIgnoreCaseAndSupplierIdAndConsumerId(
-                normalizedTitle, supplier.getId(), consumer.getId()
-        ).ifPresent(o -> { throw new ConflictException("Order with the same title/supplier/consumer already exists"); });
+        LocalDateTime started = timeSource.now();
+        Duration delay = processingTimeModel.delayFor(
+                request.getSupplierId(), request.getConsumerId(), Order.titleKeyOf(request.getTitle()));
+        return new PendingOrder(request, price, started, started.plus(delay));
+    }
 
-        Order order = Order.builder()
-                .title(normalizedTitle)
-                .supplier(supplier)
-                .consumer(consumer)
-                .price(request.getPrice())
-                .startedAt(started)
-                .finishedAt(finished)
-                .build();
+    /**
+     * Commit-фаза: блокировка обоих клиентов одним запросом и условная вставка, которая сама
+     * проверяет статусы, лимит и бизнес-ключ. Причина отказа читается только при отказе.
+     * После досрочного пробуждения ({@code early}) заказ решается, только если клиент
+     * под блокировкой действительно неактивен; иначе возвращается null и обработка продолжается.
+     */
+    private OrderDto commit(PendingOrder pending, LocalDateTime finished, boolean early) {
+        CreateOrderRequest request = pending.request();
+        List<Long> clientIds = List.of(request.getSupplierId(), request.getConsumerId());
 
+        // Блокируем строки клиентов всегда в порядке возрастания id, чтобы встречные заказы
+        // (A->B и B->A), в том числе с разных экземпляров приложения, не давали взаимоблокировку
+        List<Long> locked = clientRepository.lockIds(clientIds);
+        if (!locked.contains(request.getSupplierId())) {
+            throw new NotFoundException("Supplier not found: id=" + request.getSupplierId());
+        }
+        if (!locked.contains(request.getConsumerId())) {
+            throw new NotFoundException("Consumer not found: id=" + request.getConsumerId());
+        }
+        RequestStages.mark("lock");
+
+        // Событие деактивации устарело (клиента успели снова активировать): без этой проверки
+        // заказ закоммитился бы с finishedAt на момент пробуждения, то есть с урезанной обработкой
+        if (early && finished.isBefore(pending.deadline())
+                && clientRepository.lockIdsByActive(clientIds, true).size() == clientIds.size()) {
+            return null;
+        }
+
+        // createdAt/updatedAt — аудит, по настенным часам, как у @CreationTimestamp; виртуальными
+        // бывают только startedAt/finishedAt
+        LocalDateTime now = LocalDateTime.now();
+        OrderRow row = new OrderRow(0, request.getTitle().trim(), request.getSupplierId(), request.getConsumerId(),
+                pending.price().toBigDecimal(), pending.started(), finished, now);
+        OptionalLong id;
         try {
-            return toDto(orderRepository.save(order));
+            id = orderJdbcRepository.insertIfAllowed(row, CREDIT_LIMIT.toBigDecimal(), now);
         } catch (DataIntegrityViolationException e) {
-            // Гонка по уникальному бизнес-ключу (дубликат)
-            throw new ConflictException("Order with the same title/supplier/consumer already exists");
+            // Дубликатом считается только нарушение уникального бизнес-ключа; прочие нарушения
+            // (внешние ключи, длина title) уходят в общий обработчик DATA_INTEGRITY
+            if (!isBusinessKeyViolation(e)) {
+                throw e;
+            }
+            throw new ConflictException(ErrorCode.DUPLICATE_ORDER, "Order with the same title/supplier/consumer already exists");
         }
+        if (id.isEmpty()) {
+            throw rejection(orderJdbcRepository.findRejection(row, CREDIT_LIMIT.toBigDecimal()));
+        }
+        RequestStages.mark("insert");
+
+        return toDto(new OrderRow(id.getAsLong(), row.title(), row.supplierId(), row.consumerId(),
+                row.price(), row.startedAt(), row.finishedAt(), row.createdAt()));
+    }
+
+    private static boolean isBusinessKeyViolation(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(BUSINESS_KEY_CONSTRAINT);
+    }
+
+    private static DomainException rejection(InsertRejection reason) {
+        return switch (reason) {
+            case SUPPLIER_INACTIVE ->
+                    new BadRequestException(ErrorCode.CLIENT_INACTIVE, "Supplier became inactive during processing");
+            case CONSUMER_INACTIVE ->
+                    new BadRequestException(ErrorCode.CLIENT_INACTIVE, "Consumer became inactive during processing");
+            case CREDIT_LIMIT_EXCEEDED ->
+                    new BadRequestException(ErrorCode.CREDIT_LIMIT_EXCEEDED, "Consumer profit would drop below -1000");
+            case DUPLICATE_ORDER ->
+                    new ConflictException(ErrorCode.DUPLICATE_ORDER, "Order with the same title/supplier/consumer already exists");
+        };
     }
 
     @Override
     @Transactional(readOnly = true)
     public OrderDto getById(Long id) {
-        Order o = orderRepository.findById(id)
+        return orderRepository.findById(id)
+                .map(this::toDto)
+                .or(() -> archivedOrderRepository.findById(id).map(this::toDto))
                 .orElseThrow(() -> new NotFoundException("Order not found: id=" + id));
-        return toDto(o);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderDto> listAll() {
-        return orderRepository.findAll().stream()
-                .sorted(Comparator.comparing(Order::getId))
-                .map(this::toDto)
-                .toList();
+    public String getETag(Long id) {
+        return orderRepository.findUpdatedAtById(id)
+                .or(() -> archivedOrderRepository.findUpdatedAtById(id))
+                .map(updatedAt -> ETags.weak("order", id, updatedAt))
+                .orElse(null);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<OrderDto> listByClient(Long clientId) {
-        return orderRepository.findBySupplierIdOrConsumerId(clientId, clientId).stream()
-                .sorted(Comparator.comparing(Order::getId))
-                .map(this::toDto)
-                .toList();
+    public void streamAll(Long clientId, Consumer<OrderDto> sink) {
+        Consumer<OrderRow> mapper = r -> sink.accept(toDto(r));
+        if (clientId == null) {
+            orderJdbcRepository.streamAll(STREAM_FETCH_SIZE, mapper);
+        } else {
+            orderJdbcRepository.streamByClient(clientId, STREAM_FETCH_SIZE, mapper);
+        }
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderDto update(Long id, UpdateOrderRequest request) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Order not found: id=" + id));
+        PriceValidator.validate(request.getPrice());
 
-        if (request.getPrice() == null || request.getPrice().compareTo(BigDecimal.ONE) < 0) {
-            throw new BadRequestException("Price must be positive and >= 1");
-        }
+        return optimisticRetry.execute("order.update", () -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> {
+                        rejectIfArchived(id);
+                        return new NotFoundException("Order not found: id=" + id);
+                    });
 
-        String newTitle = request.getTitle().trim();
-        if (!order.getTitle().equalsIgnoreCase(newTitle)) {
-            orderRepository.findByTitleIgnoreCaseAndSupplierIdAndConsumerId(
-                    newTitle, order.getSupplier().getId(), order.getConsumer().getId()
-            ).ifPresent(o -> { throw new ConflictException("Order with the same title/supplier/consumer already exists"); });
+            String newTitle = request.getTitle().trim();
+            if (!order.getTitle().equalsIgnoreCase(newTitle)) {
+                if (existsBusinessKey(
+                        Order.titleKeyOf(newTitle), order.getSupplier().getId(), order.getConsumer().getId())) {
+                    throw new ConflictException(ErrorCode.DUPLICATE_ORDER, "Order with the same title/supplier/consumer already exists");
+                }
+            }
             order.setTitle(newTitle);
-        }
 
-        order.setPrice(request.getPrice());
-        return toDto(orderRepository.save(order));
+            order.setPrice(request.getPrice());
+            return toDto(orderRepository.save(order));
+        });
     }
 
     @Override
     public void delete(Long id) {
         if (!orderRepository.existsById(id)) {
+            rejectIfArchived(id);
             throw new NotFoundException("Order not found: id=" + id);
         }
         orderRepository.deleteById(id);
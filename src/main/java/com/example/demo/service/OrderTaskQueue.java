@@ -0,0 +1,72 @@
+package com.example.demo.service;
+
+import com.example.demo.model.OrderTask;
+import com.example.demo.model.OrderTaskStatus;
+import com.example.demo.repository.OrderTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Операции воркеров над таблицей order_tasks. Захват, отказ и возврат в очередь — короткие
+ * отдельные транзакции; markDone вызывается из commit-фазы заказа и присоединяется к её
+ * транзакции, поэтому заказ и DONE заявки фиксируются или откатываются вместе.
+ */
+@Component
+@RequiredArgsConstructor
+@Transactional
+public class OrderTaskQueue {
+
+    private static final int CLAIM_CANDIDATES = 16;
+
+    private final OrderTaskRepository orderTaskRepository;
+
+    public Optional<OrderTask> claimNext(String worker) {
+        List<Long> candidates = orderTaskRepository.findIdsByStatus(
+                OrderTaskStatus.PENDING, PageRequest.of(0, CLAIM_CANDIDATES));
+        LocalDateTime now = LocalDateTime.now();
+        for (Long id : candidates) {
+            if (orderTaskRepository.claim(id, worker, now, OrderTaskStatus.PENDING, OrderTaskStatus.PROCESSING) == 1) {
+                return orderTaskRepository.findById(id);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public boolean markDone(Long id, String worker, Long orderId) {
+        return orderTaskRepository.complete(id, worker, OrderTaskStatus.DONE, orderId, null,
+                LocalDateTime.now(), OrderTaskStatus.PROCESSING) == 1;
+    }
+
+    public boolean markFailed(Long id, String worker, String error) {
+        return orderTaskRepository.complete(id, worker, OrderTaskStatus.FAILED, null, truncate(error),
+                LocalDateTime.now(), OrderTaskStatus.PROCESSING) == 1;
+    }
+
+    public boolean release(Long id, String worker, String error) {
+        return orderTaskRepository.complete(id, worker, OrderTaskStatus.PENDING, null, truncate(error),
+                LocalDateTime.now(), OrderTaskStatus.PROCESSING) == 1;
+    }
+
+    /**
+     * Возвращает в PENDING заявки с истёкшим lease; исчерпавшие maxAttempts переводятся в FAILED.
+     */
+    public int requeueStale(long leaseMillis, int maxAttempts) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(leaseMillis * 1_000_000L);
+        orderTaskRepository.failStale(staleBefore, now, maxAttempts,
+                "Lease expired after " + maxAttempts + " attempts", OrderTaskStatus.FAILED, OrderTaskStatus.PROCESSING);
+        return orderTaskRepository.requeueStale(staleBefore, now, maxAttempts,
+                OrderTaskStatus.PENDING, OrderTaskStatus.PROCESSING);
+    }
+
+    private static String truncate(String s) {
+        if (s == null) return null;
+        return s.length() <= 1000 ? s : s.substring(0, 1000);
+    }
+}
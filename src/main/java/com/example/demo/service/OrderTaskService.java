@@ -0,0 +1,10 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateOrderRequest;
+import com.example.demo.dto.OrderTaskDto;
+
+public interface OrderTaskService {
+
+    OrderTaskDto submit(CreateOrderRequest request);
+    OrderTaskDto getById(Long id);
+}
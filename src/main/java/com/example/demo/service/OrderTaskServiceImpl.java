@@ -0,0 +1,61 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateOrderRequest;
+import com.example.demo.dto.OrderTaskDto;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.exception.NotFoundException;
+import com.example.demo.model.OrderTask;
+import com.example.demo.model.OrderTaskStatus;
+import com.example.demo.repository.OrderTaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class OrderTaskServiceImpl implements OrderTaskService {
+
+    private final OrderTaskRepository orderTaskRepository;
+
+    private OrderTaskDto toDto(OrderTask t) {
+        return OrderTaskDto.builder()
+                .id(t.getId())
+                .status(t.getStatus())
+                .title(t.getTitle())
+                .supplierId(t.getSupplierId())
+                .consumerId(t.getConsumerId())
+                .price(t.getPrice())
+                .attempts(t.getAttempts())
+                .orderId(t.getOrderId())
+                .error(t.getError())
+                .createdAt(t.getCreatedAt())
+                .updatedAt(t.getUpdatedAt())
+                .build();
+    }
+
+    @Override
+    public OrderTaskDto submit(CreateOrderRequest request) {
+        if (request.getSupplierId().equals(request.getConsumerId())) {
+            throw new BadRequestException("Supplier and consumer must be different");
+        }
+        PriceValidator.validate(request.getPrice());
+
+        OrderTask task = OrderTask.builder()
+                .title(request.getTitle().trim())
+                .supplierId(request.getSupplierId())
+                .consumerId(request.getConsumerId())
+                .price(request.getPrice())
+                .status(OrderTaskStatus.PENDING)
+                .build();
+        return toDto(orderTaskRepository.save(task));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public OrderTaskDto getById(Long id) {
+        OrderTask t = orderTaskRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Order task not found: id=" + id));
+        return toDto(t);
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CreateOrderRequest;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.NotFoundException;
+import com.example.demo.model.OrderTask;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул воркеров, разбирающих order_tasks.
+ * Количество воркеров не зависит от числа HTTP-потоков; заявки, зависшие в
+ * PROCESSING дольше lease (например, после рестарта узла), возвращаются в PENDING.
+ */
+@Slf4j
+@Component
+public class OrderTaskWorkerPool implements SmartLifecycle {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final OrderTaskQueue queue;
+    private final OrderService orderService;
+    private final int workerCount;
+    private final long pollIntervalMillis;
+    private final long leaseMillis;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+
+    private volatile boolean running;
+    private ExecutorService workers;
+    private ScheduledExecutorService reaper;
+
+    public OrderTaskWorkerPool(OrderTaskQueue queue,
+                               OrderService orderService,
+                               @Value("${app.orders.workers.count:4}") int workerCount,
+                               @Value("${app.orders.workers.poll-interval-ms:200}") long pollIntervalMillis,
+                               @Value("${app.orders.workers.lease-ms:60000}") long leaseMillis) {
+        this.queue = queue;
+        this.orderService = orderService;
+        this.workerCount = workerCount;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.leaseMillis = leaseMillis;
+    }
+
+    @Override
+    public void start() {
+        if (workerCount <= 0) {
+            log.info("Order task workers disabled");
+            return;
+        }
+        running = true;
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "order-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workerCount; i++) {
+            String workerId = nodeId + "-w" + i;
+            workers.submit(() -> runWorker(workerId));
+        }
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "order-task-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        reaper.scheduleWithFixedDelay(this::requeueStale, 0, Math.max(1_000, leaseMillis / 2), TimeUnit.MILLISECONDS);
+        log.info("Started {} order task workers on node {}", workerCount, nodeId);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (reaper != null) {
+            reaper.shutdownNow();
+        }
+        if (workers != null) {
+            workers.shutdown();
+            try {
+                if (!workers.awaitTermination(15, TimeUnit.SECONDS)) {
+                    workers.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workers.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void runWorker(String workerId) {
+        while (running) {
+            try {
+                Optional<OrderTask> task = queue.claimNext(workerId);
+                if (task.isPresent()) {
+                    process(task.get(), workerId);
+                } else {
+                    Thread.sleep(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Order worker {} failed to poll: {}", workerId, e.getMessage());
+                sleepQuietly();
+            }
+        }
+    }
+
+    private void process(OrderTask task, String workerId) {
+        CreateOrderRequest request = CreateOrderRequest.builder()
+                .title(task.getTitle())
+                .supplierId(task.getSupplierId())
+                .consumerId(task.getConsumerId())
+                .price(task.getPrice())
+                .build();
+        try {
+            // DONE фиксируется в транзакции заказа: после рестарта заявка не создаст его повторно.
+            // Если lease уже забрал другой воркер, заказ откатывается и остаётся за ним
+            orderService.create(request, order -> {
+                if (!queue.markDone(task.getId(), workerId, order.getId())) {
+                    throw new LeaseLostException();
+                }
+            });
+        } catch (LeaseLostException e) {
+            log.warn("Order task {} lease lost by {}, order rolled back", task.getId(), workerId);
+        } catch (BadRequestException | ConflictException | NotFoundException e) {
+            settle(task, workerId, queue.markFailed(task.getId(), workerId, e.getMessage()));
+        } catch (Exception e) {
+            log.warn("Order task {} attempt {} failed: {}", task.getId(), task.getAttempts(), e.getMessage());
+            if (task.getAttempts() >= MAX_ATTEMPTS) {
+                settle(task, workerId, queue.markFailed(task.getId(), workerId, e.getMessage()));
+            } else {
+                settle(task, workerId, queue.release(task.getId(), workerId, e.getMessage()));
+            }
+        }
+    }
+
+    private static void settle(OrderTask task, String workerId, boolean updated) {
+        if (!updated) {
+            log.warn("Order task {} lease lost by {}, result dropped", task.getId(), workerId);
+        }
+    }
+
+    private void requeueStale() {
+        try {
+            int n = queue.requeueStale(leaseMillis, MAX_ATTEMPTS);
+            if (n > 0) {
+                log.info("Requeued {} stale order tasks", n);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to requeue stale order tasks: {}", e.getMessage());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(pollIntervalMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException() {
+            super("Order task lease lost", null, false, false);
+        }
+    }
+}
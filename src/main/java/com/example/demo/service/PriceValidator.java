@@ -0,0 +1,33 @@
+package com.example.demo.service;
+
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.model.Money;
+
+import java.math.BigDecimal;
+
+/**
+ * Проверка цены заказа до округления: 0.995 не должна превратиться в 1.00.
+ */
+final class PriceValidator {
+
+    private static final Money MIN_PRICE = Money.ofUnits(1);
+
+    private PriceValidator() {
+    }
+
+    static Money validate(BigDecimal value) {
+        if (value == null) {
+            throw new BadRequestException("Price must be positive and >= 1");
+        }
+        Money price;
+        try {
+            price = Money.ofExact(value);
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Price must have at most 2 decimal places and fit the amount range");
+        }
+        if (price.isLessThan(MIN_PRICE)) {
+            throw new BadRequestException("Price must be positive and >= 1");
+        }
+        return price;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CoalescingStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight для чтений: одновременные вызовы с одинаковыми операцией и ключом
+ * ждут результата первого (лидера) вместо собственного запроса в БД.
+ * Результат не кэшируется — ключ снимается сразу по завершении лидера.
+ * Присоединившийся вызов получает результат чтения, начатого до него, поэтому может
+ * не увидеть запись, закоммиченную пока лидер работал (даже свою собственную).
+ * Годится только для чтений, которым допустима такая задержка.
+ * <p>
+ * Результат отдаётся всем ожидающим как есть: он не должен изменяться вызывающими.
+ */
+@Component
+public class RequestCoalescer {
+
+    private final boolean enabled;
+
+    private final Map<FlightKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public RequestCoalescer(@Value("${app.coalescing.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    private record FlightKey(String operation, Object key) {
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String operation, Object key, Supplier<T> work) {
+        Stats s = stats.computeIfAbsent(operation, k -> new Stats());
+        s.calls.increment();
+        if (!enabled) {
+            s.executions.increment();
+            return work.get();
+        }
+
+        FlightKey flightKey = new FlightKey(operation, key);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(flightKey, own);
+        if (leader != null) {
+            s.coalesced.increment();
+            return (T) await(leader);
+        }
+
+        s.executions.increment();
+        T result;
+        try {
+            result = work.get();
+        } catch (Throwable e) {
+            s.failures.increment();
+            // Сначала снимаем ключ, чтобы новые вызовы не получили уже готовый (устаревший) результат
+            inFlight.remove(flightKey, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(flightKey, own);
+        own.complete(result);
+        return result;
+    }
+
+    public List<CoalescingStatsDto> snapshot() {
+        Map<String, Long> pending = new HashMap<>();
+        for (FlightKey k : inFlight.keySet()) {
+            pending.merge(k.operation(), 1L, Long::sum);
+        }
+        return stats.entrySet().stream()
+                .map(e -> CoalescingStatsDto.builder()
+                        .operation(e.getKey())
+                        .calls(e.getValue().calls.sum())
+                        .executions(e.getValue().executions.sum())
+                        .coalesced(e.getValue().coalesced.sum())
+                        .failures(e.getValue().failures.sum())
+                        .inFlight(pending.getOrDefault(e.getKey(), 0L))
+                        .build())
+                .sorted(Comparator.comparing(CoalescingStatsDto::getOperation))
+                .toList();
+    }
+
+    private static Object await(CompletableFuture<Object> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            // Ошибку лидера (например, NotFoundException) получают все ожидающие
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Stats {
+        final LongAdder calls = new LongAdder();
+        final LongAdder executions = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder failures = new LongAdder();
+    }
+}
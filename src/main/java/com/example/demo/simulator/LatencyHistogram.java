@@ -0,0 +1,53 @@
+package com.example.demo.simulator;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек с логарифмическими корзинами (шаг 5%): фиксированный объём памяти
+ * при любой длительности прогона, перцентили с точностью до ширины корзины.
+ */
+final class LatencyHistogram {
+
+    private static final double BASE = 1.05;
+    private static final double LOG_BASE = Math.log(BASE);
+    private static final int BUCKETS = 512;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator maxMicros = new LongAccumulator(Long::max, 0);
+
+    void record(long micros) {
+        long v = Math.max(1, micros);
+        int idx = (int) Math.min(BUCKETS - 1, (long) (Math.log(v) / LOG_BASE));
+        counts.incrementAndGet(idx);
+        total.increment();
+        maxMicros.accumulate(v);
+    }
+
+    long count() {
+        return total.sum();
+    }
+
+    double maxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+
+    double percentileMillis(double p) {
+        long n = total.sum();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                // Верхняя граница корзины, но не больше наблюдавшегося максимума
+                return Math.min(Math.pow(BASE, i + 1), maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMillis();
+    }
+}
@@ -0,0 +1,522 @@
+package com.example.demo.simulator;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.dto.LoadScenarioResultDto;
+import com.example.demo.dto.OperationStatsDto;
+import com.example.demo.dto.OrderDto;
+import com.example.demo.dto.ResourceSampleDto;
+import com.example.demo.dto.ScenarioRunDto;
+import com.example.demo.exception.BadRequestException;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.NotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Нагрузочные сценарии поверх HTTP API: смешанная нагрузка чтение/запись, горячие клиенты
+ * по Zipf, fan-out по многим клиентам и длительный soak с замерами heap/GC.
+ * Прогон идёт в фоне; результат (пропускная способность и перцентили задержек по операциям)
+ * доступен по id прогона и записывается JSON-файлом в {@code app.scenarios.results-dir}.
+ * <p>
+ * Одновременно идёт не больше {@code app.scenarios.max-concurrent-runs} прогонов (у каждого
+ * до {@value #MAX_CONCURRENCY} воркеров), лишние отклоняются с 409. Остановка приложения
+ * прерывает идущие прогоны.
+ * <p>
+ * Heap/GC снимаются с JVM, в которой запущен сценарий: это сервер, только если
+ * {@code app.scenarios.base-urls} указывает на этот же экземпляр.
+ */
+@Slf4j
+@Service
+public class LoadScenarioService {
+
+    private static final int MAX_CONCURRENCY = 256;
+    private static final int MAX_CLIENTS = 10_000;
+    private static final int MAX_RUNS_KEPT = 50;
+    private static final int RECENT_ORDERS = 1024;
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final ScenarioService http;
+    private final ObjectMapper objectMapper;
+    private final Path resultsDir;
+
+    private final Map<String, ScenarioRunDto> runs = Collections.synchronizedMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ScenarioRunDto> eldest) {
+            return size() > MAX_RUNS_KEPT;
+        }
+    });
+    private final Semaphore runSlots;
+    private final int maxConcurrentRuns;
+    private final ExecutorService runner;
+    private final AtomicLong runSeq = new AtomicLong();
+    private final AtomicLong titleSeq = new AtomicLong();
+
+    public LoadScenarioService(ScenarioService http,
+                               ObjectMapper objectMapper,
+                               @Value("${app.scenarios.results-dir:./data/scenario-results}") String resultsDir,
+                               @Value("${app.scenarios.max-concurrent-runs:2}") int maxConcurrentRuns) {
+        this.http = http;
+        this.objectMapper = objectMapper;
+        this.resultsDir = Path.of(resultsDir);
+        this.maxConcurrentRuns = maxConcurrentRuns;
+        this.runSlots = new Semaphore(maxConcurrentRuns);
+        this.runner = Executors.newFixedThreadPool(maxConcurrentRuns, daemonThreads("scenario-run-"));
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        runner.shutdownNow();
+        if (!runner.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Scenario runs did not stop within 10 s");
+        }
+    }
+
+    /**
+     * Одна операция нагрузки; false — работа исчерпана (для прогонов по числу операций).
+     */
+    private interface Workload {
+        boolean step(LoadRun run);
+    }
+
+    // ---- сценарии ----
+
+    public ScenarioRunDto startMixed(int durationSec, int concurrency, int clients, double readRatio) {
+        requireDuration(durationSec);
+        requireConcurrency(concurrency);
+        requireClients(clients);
+        requireRatio(readRatio);
+        Map<String, Object> params = params("durationSec", durationSec, "concurrency", concurrency,
+                "clients", clients, "readRatio", readRatio);
+        return start("mixed", params, () -> {
+            List<Long> ids = createClients("mix", clients);
+            return execute("mixed", params, concurrency, durationSec * 1_000L, 0, mixed(ids, readRatio));
+        });
+    }
+
+    public ScenarioRunDto startHotClients(int durationSec, int concurrency, int clients, double zipfExponent) {
+        requireDuration(durationSec);
+        requireConcurrency(concurrency);
+        requireClients(clients);
+        if (zipfExponent <= 0) {
+            throw new BadRequestException("zipf must be > 0");
+        }
+        Map<String, Object> params = params("durationSec", durationSec, "concurrency", concurrency,
+                "clients", clients, "zipf", zipfExponent);
+        return start("hot-clients", params, () -> {
+            List<Long> ids = createClients("hot", clients);
+            ZipfSampler zipf = new ZipfSampler(ids.size(), zipfExponent);
+            Workload w = run -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                int s = zipf.sample(rnd);
+                int c = zipf.sample(rnd);
+                while (c == s) {
+                    c = zipf.sample(rnd);
+                }
+                createOrder(run, ids.get(s), ids.get(c), "hot");
+                return true;
+            };
+            return execute("hot-clients", params, concurrency, durationSec * 1_000L, 0, w);
+        });
+    }
+
+    public ScenarioRunDto startFanOut(int clients, int ordersPerClient, int concurrency) {
+        requireConcurrency(concurrency);
+        requireClients(clients);
+        if (ordersPerClient < 1) {
+            throw new BadRequestException("ordersPerClient must be >= 1");
+        }
+        Map<String, Object> params = params("clients", clients, "ordersPerClient", ordersPerClient,
+                "concurrency", concurrency);
+        return start("fan-out", params, () -> {
+            List<Long> ids = createClients("fan", clients);
+            int total = clients * ordersPerClient;
+            AtomicInteger next = new AtomicInteger();
+            // Заказ i: клиент i -> следующий по кругу со смещением, чтобы пары не повторялись
+            Workload w = run -> {
+                int i = next.getAndIncrement();
+                if (i >= total) {
+                    return false;
+                }
+                int supplier = i % clients;
+                int consumer = (supplier + 1 + i / clients) % clients;
+                if (consumer == supplier) {
+                    consumer = (consumer + 1) % clients;
+                }
+                createOrder(run, ids.get(supplier), ids.get(consumer), "fan");
+                return true;
+            };
+            return execute("fan-out", params, concurrency, 0, 0, w);
+        });
+    }
+
+    public ScenarioRunDto startSoak(int durationSec, int concurrency, int clients, double readRatio, int sampleSec) {
+        requireDuration(durationSec);
+        requireConcurrency(concurrency);
+        requireClients(clients);
+        requireRatio(readRatio);
+        if (sampleSec < 1) {
+            throw new BadRequestException("sampleSec must be >= 1");
+        }
+        Map<String, Object> params = params("durationSec", durationSec, "concurrency", concurrency,
+                "clients", clients, "readRatio", readRatio, "sampleSec", sampleSec);
+        return start("soak", params, () -> {
+            List<Long> ids = createClients("soak", clients);
+            return execute("soak", params, concurrency, durationSec * 1_000L, sampleSec, mixed(ids, readRatio));
+        });
+    }
+
+    public List<ScenarioRunDto> listRuns() {
+        synchronized (runs) {
+            List<ScenarioRunDto> list = new ArrayList<>(runs.values());
+            Collections.reverse(list);
+            return list;
+        }
+    }
+
+    public ScenarioRunDto getRun(String id) {
+        ScenarioRunDto run = runs.get(id);
+        if (run == null) {
+            throw new NotFoundException("Scenario run not found: id=" + id);
+        }
+        return run;
+    }
+
+    // ---- рабочие нагрузки ----
+
+    private Workload mixed(List<Long> ids, double readRatio) {
+        return run -> {
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            if (rnd.nextDouble() >= readRatio) {
+                int s = rnd.nextInt(ids.size());
+                int c = (s + 1 + rnd.nextInt(ids.size() - 1)) % ids.size();
+                createOrder(run, ids.get(s), ids.get(c), "mix");
+                return true;
+            }
+            Long clientId = ids.get(rnd.nextInt(ids.size()));
+            double r = rnd.nextDouble();
+            long orderId = run.randomRecentOrder(rnd);
+            if (r < 0.5 || (r >= 0.8 && orderId == 0)) {
+                run.call("getProfit", () -> http.getProfit(clientId));
+            } else if (r < 0.8) {
+                run.call("listClientOrders", () -> http.listClientOrders(clientId));
+            } else {
+                run.call("getOrder", () -> http.getOrder(orderId));
+            }
+            return true;
+        };
+    }
+
+    private void createOrder(LoadRun run, Long supplierId, Long consumerId, String prefix) {
+        BigDecimal price = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(1, 51));
+        String title = prefix + "-" + titleSeq.incrementAndGet();
+        OrderDto order = run.call("createOrder", () -> http.createOrder(supplierId, consumerId, title, price));
+        if (order != null && order.getId() != null) {
+            run.rememberOrder(order.getId());
+        }
+    }
+
+    // ---- движок ----
+
+    private ScenarioRunDto start(String scenario, Map<String, Object> params, Callable<LoadScenarioResultDto> body) {
+        if (!runSlots.tryAcquire()) {
+            throw new ConflictException("Too many scenario runs in progress (max " + maxConcurrentRuns + ")");
+        }
+        String id = LocalDateTime.now().format(RUN_ID_FORMAT) + "-" + runSeq.incrementAndGet();
+        ScenarioRunDto running = ScenarioRunDto.builder()
+                .id(id)
+                .scenario(scenario)
+                .status(ScenarioRunDto.Status.RUNNING)
+                .startedAt(Instant.now())
+                .build();
+        runs.put(id, running);
+        log.info("Scenario run {} ({}) started with {}", id, scenario, params);
+
+        runner.submit(() -> {
+            ScenarioRunDto.ScenarioRunDtoBuilder done = ScenarioRunDto.builder()
+                    .id(id)
+                    .scenario(scenario)
+                    .startedAt(running.getStartedAt());
+            try {
+                LoadScenarioResultDto result = body.call();
+                done.status(ScenarioRunDto.Status.COMPLETED).result(result).resultFile(writeResult(scenario, id, result));
+            } catch (Exception e) {
+                log.warn("Scenario run {} failed: {}", id, e.toString());
+                done.status(ScenarioRunDto.Status.FAILED).error(e.toString());
+            } finally {
+                runSlots.release();
+                runs.put(id, done.finishedAt(Instant.now()).build());
+            }
+        });
+        return running;
+    }
+
+    private LoadScenarioResultDto execute(String scenario, Map<String, Object> params, int concurrency,
+                                          long durationMillis, int sampleSec, Workload workload) throws InterruptedException {
+        LoadRun run = new LoadRun();
+        Instant startedAt = Instant.now();
+        long t0 = System.nanoTime();
+        long deadline = durationMillis > 0 ? t0 + durationMillis * 1_000_000 : Long.MAX_VALUE;
+
+        List<ResourceSampleDto> samples = Collections.synchronizedList(new ArrayList<>());
+        ScheduledExecutorService sampler = null;
+        if (sampleSec > 0) {
+            sampler = Executors.newSingleThreadScheduledExecutor(daemonThreads("scenario-sampler-"));
+            sampler.scheduleAtFixedRate(() -> samples.add(sample(t0, run)), 0, sampleSec, TimeUnit.SECONDS);
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, daemonThreads("scenario-worker-"));
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() - deadline < 0 && !Thread.currentThread().isInterrupted()) {
+                        if (!workload.step(run)) {
+                            break;
+                        }
+                    }
+                });
+            }
+            workers.shutdown();
+            long waitMillis = durationMillis > 0 ? durationMillis + 120_000 : TimeUnit.HOURS.toMillis(6);
+            workers.awaitTermination(waitMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            // И по таймауту, и при прерывании прогона (остановка приложения) воркеры не переживают его
+            workers.shutdownNow();
+            if (sampler != null) {
+                sampler.shutdownNow();
+            }
+        }
+        if (sampler != null) {
+            samples.add(sample(t0, run));
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - t0) / 1_000_000);
+        List<OperationStatsDto> ops = run.ops.entrySet().stream()
+                .map(e -> e.getValue().toDto(e.getKey(), elapsedMillis))
+                .sorted(Comparator.comparing(OperationStatsDto::getOperation))
+                .toList();
+        long total = run.operations.sum();
+        return LoadScenarioResultDto.builder()
+                .scenario(scenario)
+                .parameters(params)
+                .instances(http.instances())
+                .startedAt(startedAt)
+                .elapsedMillis(elapsedMillis)
+                .operations(total)
+                .throughputPerSec(total * 1000.0 / elapsedMillis)
+                .operationStats(ops)
+                .samples(sampleSec > 0 ? new ArrayList<>(samples) : null)
+                .verification(http.verifyIfEnabled())
+                .build();
+    }
+
+    private List<Long> createClients(String prefix, int n) {
+        long ts = System.currentTimeMillis();
+        List<Long> ids = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ClientDto c = http.createClient(prefix + "-" + ts + "-" + i, prefix + ts + "-" + i + "@mail.test");
+            ids.add(c.getId());
+        }
+        return ids;
+    }
+
+    private String writeResult(String scenario, String id, LoadScenarioResultDto result) {
+        try {
+            Files.createDirectories(resultsDir);
+            Path file = resultsDir.resolve(scenario + "-" + id + ".json");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), result);
+            return file.toAbsolutePath().toString();
+        } catch (Exception e) {
+            log.warn("Could not write scenario result {}: {}", id, e.toString());
+            return null;
+        }
+    }
+
+    private static ResourceSampleDto sample(long t0, LoadRun run) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        long gcCount = 0, gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcTime += Math.max(0, gc.getCollectionTime());
+        }
+        return ResourceSampleDto.builder()
+                .elapsedMillis((System.nanoTime() - t0) / 1_000_000)
+                .operations(run.operations.sum())
+                .heapUsedMb(heap.getUsed() / (1024 * 1024))
+                .heapCommittedMb(heap.getCommitted() / (1024 * 1024))
+                .gcCount(gcCount)
+                .gcTimeMillis(gcTime)
+                .threads(ManagementFactory.getThreadMXBean().getThreadCount())
+                .build();
+    }
+
+    // ---- вспомогательное ----
+
+    private static Map<String, Object> params(Object... kv) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        for (int i = 0; i < kv.length; i += 2) {
+            m.put((String) kv[i], kv[i + 1]);
+        }
+        return m;
+    }
+
+    private static void requireDuration(int durationSec) {
+        if (durationSec < 1) {
+            throw new BadRequestException("durationSec must be >= 1");
+        }
+    }
+
+    private static void requireConcurrency(int concurrency) {
+        if (concurrency < 1 || concurrency > MAX_CONCURRENCY) {
+            throw new BadRequestException("concurrency must be in [1, " + MAX_CONCURRENCY + "]");
+        }
+    }
+
+    private static void requireClients(int clients) {
+        if (clients < 2 || clients > MAX_CLIENTS) {
+            throw new BadRequestException("clients must be in [2, " + MAX_CLIENTS + "]");
+        }
+    }
+
+    private static void requireRatio(double readRatio) {
+        if (readRatio < 0 || readRatio > 1) {
+            throw new BadRequestException("readRatio must be in [0, 1]");
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * Состояние одного прогона: статистика по операциям и кольцо недавно созданных заказов для чтений.
+     */
+    private static final class LoadRun {
+        final Map<String, OperationStats> ops = new ConcurrentHashMap<>();
+        final LongAdder operations = new LongAdder();
+        final AtomicLongArray recentOrders = new AtomicLongArray(RECENT_ORDERS);
+        final AtomicLong recentCursor = new AtomicLong();
+
+        <T> T call(String operation, Callable<T> action) {
+            long t0 = System.nanoTime();
+            String status;
+            T result = null;
+            try {
+                result = action.call();
+                status = "2xx";
+            } catch (HttpStatusCodeException e) {
+                status = String.valueOf(e.getStatusCode().value());
+            } catch (Exception e) {
+                status = "error";
+            }
+            ops.computeIfAbsent(operation, k -> new OperationStats())
+                    .record((System.nanoTime() - t0) / 1_000, status);
+            operations.increment();
+            return result;
+        }
+
+        void rememberOrder(long id) {
+            recentOrders.set((int) (recentCursor.getAndIncrement() % RECENT_ORDERS), id);
+        }
+
+        long randomRecentOrder(ThreadLocalRandom rnd) {
+            long filled = Math.min(recentCursor.get(), RECENT_ORDERS);
+            return filled == 0 ? 0 : recentOrders.get(rnd.nextInt((int) filled));
+        }
+    }
+
+    private static final class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        void record(long micros, String status) {
+            latency.record(micros);
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+            if (!"2xx".equals(status)) {
+                errors.increment();
+            }
+        }
+
+        OperationStatsDto toDto(String name, long elapsedMillis) {
+            Map<String, Long> byStatus = new TreeMap<>();
+            statuses.forEach((k, v) -> byStatus.put(k, v.sum()));
+            long count = latency.count();
+            return OperationStatsDto.builder()
+                    .operation(name)
+                    .count(count)
+                    .errors(errors.sum())
+                    .statuses(byStatus)
+                    .throughputPerSec(count * 1000.0 / elapsedMillis)
+                    .p50Ms(latency.percentileMillis(0.50))
+                    .p90Ms(latency.percentileMillis(0.90))
+                    .p99Ms(latency.percentileMillis(0.99))
+                    .p999Ms(latency.percentileMillis(0.999))
+                    .maxMs(latency.maxMillis())
+                    .build();
+        }
+    }
+
+    /**
+     * Выбор клиента с распределением Zipf: ранг 0 — самый «горячий».
+     */
+    private static final class ZipfSampler {
+        private final double[] cdf;
+
+        ZipfSampler(int n, double exponent) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, exponent);
+                cdf[i] = sum;
+            }
+            for (int i = 0; i < n; i++) {
+                cdf[i] /= sum;
+            }
+        }
+
+        int sample(ThreadLocalRandom rnd) {
+            int idx = Arrays.binarySearch(cdf, rnd.nextDouble());
+            return Math.min(cdf.length - 1, idx >= 0 ? idx : -idx - 1);
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.demo.simulator;
 
+import com.example.demo.dto.InvariantReportDto;
+import com.example.demo.dto.ScenarioRunDto;
 import com.example.demo.dto.ScenarioSummaryDto;
+import com.example.demo.service.InvariantVerifier;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/scenarios")
 public class ScenarioController {
 
     private final ScenarioService scenarioService;
+    private final LoadScenarioService loadScenarioService;
+    private final InvariantVerifier invariantVerifier;
 
     @PostMapping("/duplicates")
     public ScenarioSummaryDto duplicates(@RequestParam(defaultValue = "10") int n)
@@ -29,4 +37,57 @@ public class ScenarioController {
             throws InterruptedException {
         return scenarioService.runDeactivationRace(n, deactivateAfterMs);
     }
-}
\ No newline at end of file
+
+    // Нагрузочные прогоны идут в фоне: ответ 202 с id, результат — GET /runs/{id} и JSON-файл
+
+    @PostMapping("/load/mixed")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ScenarioRunDto mixed(@RequestParam(defaultValue = "60") int durationSec,
+                                @RequestParam(defaultValue = "16") int concurrency,
+                                @RequestParam(defaultValue = "20") int clients,
+                                @RequestParam(defaultValue = "0.8") double readRatio) {
+        return loadScenarioService.startMixed(durationSec, concurrency, clients, readRatio);
+    }
+
+    @PostMapping("/load/hot-clients")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ScenarioRunDto hotClients(@RequestParam(defaultValue = "60") int durationSec,
+                                     @RequestParam(defaultValue = "32") int concurrency,
+                                     @RequestParam(defaultValue = "100") int clients,
+                                     @RequestParam(defaultValue = "1.1") double zipf) {
+        return loadScenarioService.startHotClients(durationSec, concurrency, clients, zipf);
+    }
+
+    @PostMapping("/load/fan-out")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ScenarioRunDto fanOut(@RequestParam(defaultValue = "200") int clients,
+                                 @RequestParam(defaultValue = "5") int ordersPerClient,
+                                 @RequestParam(defaultValue = "64") int concurrency) {
+        return loadScenarioService.startFanOut(clients, ordersPerClient, concurrency);
+    }
+
+    @PostMapping("/load/soak")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public ScenarioRunDto soak(@RequestParam(defaultValue = "3600") int durationSec,
+                               @RequestParam(defaultValue = "8") int concurrency,
+                               @RequestParam(defaultValue = "50") int clients,
+                               @RequestParam(defaultValue = "0.8") double readRatio,
+                               @RequestParam(defaultValue = "30") int sampleSec) {
+        return loadScenarioService.startSoak(durationSec, concurrency, clients, readRatio, sampleSec);
+    }
+
+    @GetMapping("/verify")
+    public InvariantReportDto verify() {
+        return invariantVerifier.verify();
+    }
+
+    @GetMapping("/runs")
+    public List<ScenarioRunDto> runs() {
+        return loadScenarioService.listRuns();
+    }
+
+    @GetMapping("/runs/{id}")
+    public ScenarioRunDto run(@PathVariable String id) {
+        return loadScenarioService.getRun(id);
+    }
+}
@@ -5,29 +5,71 @@ import com.example.demo.dto.ClientProfitDto;
 import com.example.demo.dto.ClientStatusRequest;
 import com.example.demo.dto.CreateClientRequest;
 import com.example.demo.dto.CreateOrderRequest;
+import com.example.demo.dto.InvariantReportDto;
 import com.example.demo.dto.OrderDto;
 import com.example.demo.dto.ScenarioAttemptResultDto;
 import com.example.demo.dto.ScenarioSummaryDto;
+import com.example.demo.processing.TimeSource;
+import com.example.demo.service.InvariantVerifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class ScenarioService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
-    private static final String BASE = "http://localhost:8080";
+    // Один клиент на все сценарии: пул keep-alive соединений (и h2c, если сервер его поддерживает)
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final RestTemplate restTemplate = createRestTemplate(httpClient);
+    private final String[] baseUrls;
+    private final AtomicInteger nextBase = new AtomicInteger();
+    private final boolean verifyAfterRun;
+    private final InvariantVerifier invariantVerifier;
+    private final TimeSource timeSource;
+
+    /**
+     * Несколько адресов (через запятую) — экземпляры приложения на общей БД;
+     * запросы распределяются между ними по кругу.
+     */
+    public ScenarioService(@Value("${app.scenarios.base-urls:http://localhost:8080}") String[] baseUrls,
+                           @Value("${app.scenarios.verify:true}") boolean verifyAfterRun,
+                           InvariantVerifier invariantVerifier,
+                           TimeSource timeSource) {
+        this.baseUrls = baseUrls;
+        this.verifyAfterRun = verifyAfterRun;
+        this.invariantVerifier = invariantVerifier;
+        this.timeSource = timeSource;
+    }
+
+    private static RestTemplate createRestTemplate(HttpClient httpClient) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofSeconds(60));
+        return new RestTemplate(factory);
+    }
+
+    private String base() {
+        return baseUrls[Math.floorMod(nextBase.getAndIncrement(), baseUrls.length)];
+    }
 
     private <T> ResponseEntity<T> post(String url, Object body, Class<T> type) {
         HttpHeaders h = new HttpHeaders();
@@ -53,7 +95,7 @@ public class ScenarioService {
                 .email(email)
                 .address("—")
                 .build();
-        return post(BASE + "/api/clients", req, ClientDto.class).getBody();
+        return post(base() + "/api/clients", req, ClientDto.class).getBody();
     }
 
     public OrderDto createOrder(Long supplierId, Long consumerId, String title, BigDecimal price) {
@@ -63,16 +105,35 @@ public class ScenarioService {
                 .consumerId(consumerId)
                 .price(price)
                 .build();
-        return post(BASE + "/api/orders", req, OrderDto.class).getBody();
+        return post(base() + "/api/orders", req, OrderDto.class).getBody();
     }
 
     public ClientProfitDto getProfit(Long clientId) {
-        return get(BASE + "/api/clients/" + clientId + "/profit", ClientProfitDto.class).getBody();
+        return get(base() + "/api/clients/" + clientId + "/profit", ClientProfitDto.class).getBody();
+    }
+
+    public OrderDto getOrder(Long orderId) {
+        return get(base() + "/api/orders/" + orderId, OrderDto.class).getBody();
+    }
+
+    public OrderDto[] listClientOrders(Long clientId) {
+        return get(base() + "/api/clients/" + clientId + "/orders", OrderDto[].class).getBody();
+    }
+
+    public int instances() {
+        return baseUrls.length;
+    }
+
+    /**
+     * Проверка инвариантов по БД после прогона (app.scenarios.verify); null, если выключена.
+     */
+    public InvariantReportDto verifyIfEnabled() {
+        return verifyAfterRun ? invariantVerifier.verify() : null;
     }
 
     public ClientDto setActive(Long clientId, boolean active) {
         ClientStatusRequest body = ClientStatusRequest.builder().active(active).build();
-        return patch(BASE + "/api/clients/" + clientId + "/status", body, ClientDto.class).getBody();
+        return patch(base() + "/api/clients/" + clientId + "/status", body, ClientDto.class).getBody();
     }
 
     public ScenarioSummaryDto runDuplicates(int n) throws InterruptedException {
@@ -80,7 +141,8 @@ public class ScenarioService {
         ClientDto supplier = createClient("Supp-" + ts, "supp" + ts + "@mail.test");
         ClientDto consumer = createClient("Cons-" + ts, "cons" + ts + "@mail.test");
 
-        final String title = "dup-" + ts;    // одинаковый title для всех попыток
+        // Title без метки времени: пара клиентов новая, а задержки при app.processing.seed воспроизводимы
+        final String title = "dup";    // одинаковый title для всех попыток
         final BigDecimal price = BigDecimal.ONE;
 
         ExecutorService pool = Executors.newFixedThreadPool(Math.min(16, n));
@@ -131,7 +193,10 @@ public class ScenarioService {
                 .requested(n)
                 .succeeded(ok)
                 .failed(fail)
+                .instances(baseUrls.length)
+                .elapsedMillis(System.currentTimeMillis() - ts)
                 .attempts(attempts)
+                .verification(verifyIfEnabled())
                 .build();
     }
 
@@ -140,9 +205,9 @@ public class ScenarioService {
         ClientDto supplier = createClient("Supp-" + ts, "supp" + ts + "@mail.test");
         ClientDto consumer = createClient("Cons-" + ts, "cons" + ts + "@mail.test");
 
-        createOrder(supplier.getId(), consumer.getId(), "seed-" + ts, new BigDecimal("970"));
+        createOrder(supplier.getId(), consumer.getId(), "seed", new BigDecimal("970"));
 
-        final String commonTitle = "dec-common-" + ts;
+        final String commonTitle = "dec-common";
         List<BigDecimal> prices = new ArrayList<>();
         for (int p = 100; p >= 10 && prices.size() < n; p -= 10) {
             prices.add(new BigDecimal(p));
@@ -197,7 +262,10 @@ public class ScenarioService {
                 .requested(prices.size())
                 .succeeded(ok)
                 .failed(fail)
+                .instances(baseUrls.length)
+                .elapsedMillis(System.currentTimeMillis() - ts)
                 .attempts(attempts)
+                .verification(verifyIfEnabled())
                 .build();
     }
 
@@ -215,19 +283,23 @@ public class ScenarioService {
             final int idx = i;
             futures.add(pool.submit(() -> {
                 start.await();
+                long t0 = System.currentTimeMillis();
                 try {
-                    OrderDto res = createOrder(supplier.getId(), consumer.getId(), "race-" + ts + "-" + idx, new BigDecimal("50"));
+                    OrderDto res = createOrder(supplier.getId(), consumer.getId(), "race-" + idx, new BigDecimal("50"));
                     return ScenarioAttemptResultDto.builder()
                             .index(idx).success(true).httpStatus(201)
                             .orderId(Objects.requireNonNull(res).getId())
+                            .elapsedMillis(System.currentTimeMillis() - t0)
                             .message("created").build();
                 } catch (HttpStatusCodeException ex) {
                     return ScenarioAttemptResultDto.builder()
                             .index(idx).success(false).httpStatus(ex.getRawStatusCode())
+                            .elapsedMillis(System.currentTimeMillis() - t0)
                             .message(ex.getResponseBodyAsString()).build();
                 } catch (Exception e) {
                     return ScenarioAttemptResultDto.builder()
                             .index(idx).success(false).httpStatus(null)
+                            .elapsedMillis(System.currentTimeMillis() - t0)
                             .message(e.getMessage()).build();
                 }
             }));
@@ -235,19 +307,22 @@ public class ScenarioService {
 
         futures.add(pool.submit(() -> {
             start.await();
+            // Деактивация — событие на той же шкале TimeSource, что и окончания обработки заказов:
+            // в виртуальном времени она выполняется в потоке часов, между заказами с finishedAt до и после неё
+            LocalDateTime deactivateAt = timeSource.now().plus(Duration.ofMillis(Math.max(0, deactivateAfterMillis)));
             try {
-                Thread.sleep(Math.max(0, deactivateAfterMillis));
-                setActive(consumer.getId(), false);
+                timeSource.at(deactivateAt).thenApply(t -> setActive(consumer.getId(), false)).join();
                 return ScenarioAttemptResultDto.builder()
                         .index(n).success(true).httpStatus(200).message("consumer deactivated").build();
-            } catch (HttpStatusCodeException ex) {
-                return ScenarioAttemptResultDto.builder()
-                        .index(n).success(false).httpStatus(ex.getRawStatusCode())
-                        .message(ex.getResponseBodyAsString()).build();
-            } catch (Exception e) {
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof HttpStatusCodeException ex) {
+                    return ScenarioAttemptResultDto.builder()
+                            .index(n).success(false).httpStatus(ex.getRawStatusCode())
+                            .message(ex.getResponseBodyAsString()).build();
+                }
                 return ScenarioAttemptResultDto.builder()
                         .index(n).success(false).httpStatus(null)
-                        .message(e.getMessage()).build();
+                        .message(e.getCause().getMessage()).build();
             }
         }));
 
@@ -273,7 +348,10 @@ public class ScenarioService {
                 .requested(n)
                 .succeeded((int) ordersOk)
                 .failed((int) ordersFail)
+                .instances(baseUrls.length)
+                .elapsedMillis(System.currentTimeMillis() - ts)
                 .attempts(attempts)
+                .verification(verifyIfEnabled())
                 .build();
     }
 }
\ No newline at end of file
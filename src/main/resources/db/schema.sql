@@ -0,0 +1,80 @@
+-- Схема для профиля faststart (ddl-auto: none). Должна совпадать с маппингом сущностей.
+
+create table if not exists clients (
+    id             bigint generated by default as identity primary key,
+    name           varchar(200)  not null,
+    email          varchar(320)  not null,
+    address        varchar(500),
+    active         boolean       not null,
+    deactivated_at timestamp(6),
+    archived_balance numeric(19, 2) default 0 not null,
+    created_at     timestamp(6)  not null,
+    updated_at     timestamp(6)  not null,
+    version        bigint,
+    constraint uk_clients_email unique (email)
+);
+
+create index if not exists idx_clients_name on clients (name);
+create index if not exists idx_clients_address on clients (address);
+
+create table if not exists orders (
+    id          bigint generated by default as identity primary key,
+    title       varchar(200)   not null,
+    title_key   varchar(200)   not null,
+    supplier_id bigint         not null,
+    consumer_id bigint         not null,
+    price       numeric(19, 2) not null,
+    started_at  timestamp(6)   not null,
+    finished_at timestamp(6)   not null,
+    created_at  timestamp(6)   not null,
+    updated_at  timestamp(6)   not null,
+    version     bigint,
+    constraint uk_order_business_key unique (title_key, supplier_id, consumer_id),
+    constraint fk_order_supplier foreign key (supplier_id) references clients (id),
+    constraint fk_order_consumer foreign key (consumer_id) references clients (id),
+    check (price > 0),
+    check (supplier_id <> consumer_id)
+);
+
+create index if not exists idx_order_supplier on orders (supplier_id);
+create index if not exists idx_order_consumer on orders (consumer_id);
+create index if not exists idx_order_title on orders (title);
+create index if not exists idx_order_finished on orders (finished_at);
+
+create table if not exists orders_archive (
+    id          bigint         not null primary key,
+    title       varchar(200)   not null,
+    title_key   varchar(200)   not null,
+    supplier_id bigint         not null,
+    consumer_id bigint         not null,
+    price       numeric(19, 2) not null,
+    started_at  timestamp(6)   not null,
+    finished_at timestamp(6)   not null,
+    created_at  timestamp(6)   not null,
+    updated_at  timestamp(6)   not null,
+    archived_at timestamp(6)   not null,
+    constraint uk_order_archive_business_key unique (title_key, supplier_id, consumer_id)
+);
+
+create index if not exists idx_order_archive_supplier on orders_archive (supplier_id);
+create index if not exists idx_order_archive_consumer on orders_archive (consumer_id);
+create index if not exists idx_order_archive_finished on orders_archive (finished_at);
+
+create table if not exists order_tasks (
+    id          bigint generated by default as identity primary key,
+    title       varchar(300)   not null,
+    supplier_id bigint         not null,
+    consumer_id bigint         not null,
+    price       numeric(19, 2) not null,
+    status      varchar(20)    not null,
+    attempts    integer        not null,
+    claimed_by  varchar(100),
+    claimed_at  timestamp(6),
+    order_id    bigint,
+    error       varchar(1000),
+    created_at  timestamp(6)   not null,
+    updated_at  timestamp(6)   not null
+);
+
+create index if not exists idx_order_task_status on order_tasks (status, id);
+create index if not exists idx_order_task_claimed_at on order_tasks (claimed_at);
@@ -0,0 +1,46 @@
+package com.example.demo;
+
+import com.example.demo.dto.CreateClientRequest;
+import com.example.demo.dto.CreateOrderRequest;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Общая настройка интеграционных тестов: профиль test и своя H2 в памяти на каждый класс.
+ * База живёт, пока открыт пул соединений, и исчезает вместе с контекстом.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+abstract class ApplicationTestSupport {
+
+	@DynamicPropertySource
+	static void isolatedDatabase(DynamicPropertyRegistry registry) {
+		String url = isolatedDatabaseUrl();
+		registry.add("spring.datasource.url", () -> url);
+		registry.add("app.datasource.read.url", () -> url);
+	}
+
+	static String isolatedDatabaseUrl() {
+		return "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL";
+	}
+
+	static CreateClientRequest client(String name) {
+		return CreateClientRequest.builder().name(name).email(name + "@example.com").build();
+	}
+
+	static CreateOrderRequest order(Long supplierId, Long consumerId, String title, BigDecimal price) {
+		return CreateOrderRequest.builder()
+				.title(title)
+				.supplierId(supplierId)
+				.consumerId(consumerId)
+				.price(price)
+				.build();
+	}
+}
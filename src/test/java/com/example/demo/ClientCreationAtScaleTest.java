@@ -0,0 +1,134 @@
+package com.example.demo;
+
+import com.example.demo.dto.CreateClientRequest;
+import com.example.demo.exception.ConflictException;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.repository.ClientRepository;
+import com.example.demo.service.ClientEmailBackfill;
+import com.example.demo.service.ClientService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.ApplicationTestSupport.client;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Создание клиентов при миллионе существующих: уникальность email проверяется точным
+ * сравнением по uk_clients_email, поэтому скорость не зависит от размера таблицы.
+ * Каждый десятый из миллиона записан в смешанном регистре, как до нормализации, —
+ * на нём же проверяется backfill (validate отказывает, fix исправляет).
+ * Файловая H2: миллион клиентов в памяти тестовой JVM не нужен.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class ClientCreationAtScaleTest {
+
+	private static final Logger log = LoggerFactory.getLogger(ClientCreationAtScaleTest.class);
+
+	private static final int EXISTING = 1_000_000;
+	private static final int LEGACY_EVERY = 10;
+	private static final int BATCH = 10_000;
+	private static final int CREATED = 2_000;
+
+	@TempDir
+	static Path dataDir;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private ClientRepository clientRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@DynamicPropertySource
+	static void fileDatabase(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> "jdbc:h2:file:" + dataDir.resolve("clients") + ";MODE=PostgreSQL");
+		registry.add("app.datasource.read.url", () -> "jdbc:h2:file:" + dataDir.resolve("clients") + ";MODE=PostgreSQL");
+	}
+
+	@Test
+	void createsClientsAtConstantCostWithMillionExisting() {
+		insertExisting();
+
+		assertThatThrownBy(() -> backfill("validate").run(new DefaultApplicationArguments()))
+				.isInstanceOf(IllegalStateException.class);
+		long t0 = System.nanoTime();
+		backfill("fix").run(new DefaultApplicationArguments());
+		log.info("Backfill normalized {} of {} emails in {} ms", EXISTING / LEGACY_EVERY, EXISTING,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0));
+		assertThat(clientRepository.countNotNormalizedEmails()).isZero();
+		backfill("validate").run(new DefaultApplicationArguments());
+
+		// Поиск по email — точное сравнение по уникальному индексу, без lower() во время запроса
+		String plan = jdbcTemplate.queryForObject("explain select id from clients where email = 'x@example.com'", String.class);
+		assertThat(plan.toUpperCase()).contains("UK_CLIENTS_EMAIL");
+
+		long[] nanos = new long[CREATED];
+		long start = System.nanoTime();
+		for (int i = 0; i < CREATED; i++) {
+			long c0 = System.nanoTime();
+			clientService.create(client("scale-new-" + i));
+			nanos[i] = System.nanoTime() - c0;
+		}
+		long elapsed = System.nanoTime() - start;
+		Arrays.sort(nanos);
+		log.info("Created {} clients over {} existing: {} clients/s, median={} us, p99={} us", CREATED, EXISTING,
+				Math.round(CREATED * 1e9 / elapsed), nanos[CREATED / 2] / 1_000, nanos[CREATED * 99 / 100] / 1_000);
+
+		// Бывший legacy-адрес в другом регистре — тот же клиент
+		assertThatThrownBy(() -> clientService.create(
+				CreateClientRequest.builder().name("Legacy-0").email("USER-0@Example.COM").build()))
+				.isInstanceOfSatisfying(ConflictException.class, e -> assertThat(e.getCode()).isEqualTo(ErrorCode.DUPLICATE_EMAIL));
+		assertThat(clientRepository.count()).isEqualTo(EXISTING + CREATED);
+	}
+
+	private ClientEmailBackfill backfill(String mode) {
+		return new ClientEmailBackfill(clientRepository, transactionTemplate, jdbcTemplate, mode);
+	}
+
+	private void insertExisting() {
+		Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+		List<Object[]> rows = new ArrayList<>(BATCH);
+		for (int i = 0; i < EXISTING; i++) {
+			String email = i % LEGACY_EVERY == 0 ? "User-" + i + "@Example.com" : "user-" + i + "@example.com";
+			rows.add(new Object[]{"existing " + i, email, true, now, now});
+			if (rows.size() == BATCH) {
+				insert(rows);
+				rows.clear();
+			}
+		}
+	}
+
+	private void insert(List<Object[]> rows) {
+		jdbcTemplate.batchUpdate("""
+				insert into clients (name, email, active, archived_balance, created_at, updated_at, version)
+				values (?, ?, ?, 0, ?, ?, 0)
+				""", rows);
+	}
+}
@@ -0,0 +1,143 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Старт сервера в отдельной JVM: профиль по умолчанию против faststart. Меряется время от запуска
+ * процесса до первого успешного POST /api/orders (201) и RSS процесса после прогрева.
+ * Обработка заказа — виртуальное время, чтобы в замер не попадала задержка 1–10 с.
+ * В лог пишутся оба замера; проверяется, что faststart сам отчитался о старте и первом заказе.
+ */
+class FastStartTest {
+
+	private static final Logger log = LoggerFactory.getLogger(FastStartTest.class);
+
+	private static final int WARMUP_ORDERS = 500;
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+	@TempDir
+	Path logDir;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void faststartReachesFirstOrder() throws Exception {
+		long[] baseline = measure("default");
+		long[] faststart = measure("faststart");
+		log.info("default: first order after {} ms, RSS after warm-up {} MB", baseline[0], baseline[1]);
+		log.info("faststart: first order after {} ms, RSS after warm-up {} MB", faststart[0], faststart[1]);
+
+		String report = Files.readString(logDir.resolve("faststart.log"));
+		assertThat(report).contains("Startup: ready after").contains("Startup: first order created after");
+	}
+
+	// {мс до первого заказа, RSS в МБ после прогрева}
+	private long[] measure(String profile) throws Exception {
+		int port = freePort();
+		String java = ProcessHandle.current().info().command().orElse("java");
+		List<String> command = List.of(java, "-cp", System.getProperty("java.class.path"),
+				TestTaskApplication.class.getName(),
+				"--spring.profiles.active=" + profile,
+				"--server.port=" + port,
+				"--app.processing.time=virtual",
+				"--app.processing.settle-ms=0");
+		long t0 = System.nanoTime();
+		Process server = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(logDir.resolve(profile + ".log").toFile())
+				.start();
+		try {
+			String base = "http://localhost:" + port;
+			long supplier = awaitFirstClient(server, base, profile);
+			long consumer = createClient(base, profile + "-consumer");
+			assertThat(createOrder(base, supplier, consumer, "first order")).isEqualTo(201);
+			long firstOrderMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+
+			// Поставщик и потребитель чередуются: баланс не уходит к лимиту
+			for (int i = 0; i < WARMUP_ORDERS; i++) {
+				boolean forward = i % 2 == 0;
+				assertThat(createOrder(base, forward ? consumer : supplier, forward ? supplier : consumer, "warm-up " + i))
+						.isEqualTo(201);
+			}
+			return new long[]{firstOrderMillis, rssMegabytes(server.pid())};
+		} finally {
+			server.destroy();
+			server.waitFor(30, TimeUnit.SECONDS);
+		}
+	}
+
+	private long awaitFirstClient(Process server, String base, String profile) throws Exception {
+		long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!server.isAlive()) {
+				fail("server exited with " + server.exitValue() + ", see " + logDir.resolve(profile + ".log"));
+			}
+			try {
+				return createClient(base, profile + "-supplier");
+			} catch (IOException notListeningYet) {
+				Thread.sleep(50);
+			}
+		}
+		return fail("server did not start within " + STARTUP_TIMEOUT);
+	}
+
+	private long createClient(String base, String name) throws Exception {
+		HttpResponse<String> response = post(base + "/api/clients", Map.of("name", name, "email", name + "@example.com"));
+		assertThat(response.statusCode()).isEqualTo(201);
+		return objectMapper.readTree(response.body()).get("id").asLong();
+	}
+
+	private int createOrder(String base, long supplierId, long consumerId, String title) throws Exception {
+		return post(base + "/api/orders", Map.of("title", title, "supplierId", supplierId, "consumerId", consumerId,
+				"price", "1.00")).statusCode();
+	}
+
+	private HttpResponse<String> post(String url, Map<String, Object> body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+				.build();
+		return http.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static long rssMegabytes(long pid) throws IOException {
+		Path status = Path.of("/proc/" + pid + "/status");
+		if (!Files.exists(status)) {
+			// не Linux — RSS недоступен
+			return -1;
+		}
+		for (String line : Files.readAllLines(status)) {
+			if (line.startsWith("VmRSS:")) {
+				return Long.parseLong(line.replaceAll("\\D+", "")) / 1024;
+			}
+		}
+		return -1;
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
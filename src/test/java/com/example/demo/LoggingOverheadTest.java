@@ -0,0 +1,171 @@
+package com.example.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Пропускная способность POST /api/orders при разном логировании, сервер — отдельная JVM
+ * (конфигурация logback выбирается при старте процесса): профиль по умолчанию с show-sql,
+ * prod-logging с асинхронными аппендерами и JSON-событиями и логирование выключенное целиком.
+ * Каждый десятый запрос — дубликат (409), чтобы в замер попадала выборка отказов.
+ * В лог пишутся запросов/с; проверяется, что события пишет только prod-logging и отказы в нём выборочные.
+ */
+class LoggingOverheadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(LoggingOverheadTest.class);
+
+	private static final int THREADS = 8;
+	private static final int WARMUP_PER_THREAD = 200;
+	private static final int REQUESTS_PER_THREAD = 1_000;
+	private static final int DUPLICATE_EVERY = 10;
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+	private static final String EVENT_MARKER = "{\"method\":\"POST\",\"path\":\"/api/orders\"";
+
+	@TempDir
+	Path logDir;
+
+	private final HttpClient http = HttpClient.newHttpClient();
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void measuresOrderThroughputWithLoggingOnAndOff() throws Exception {
+		double sqlLogging = measure("show-sql", "default");
+		double prodLogging = measure("prod-logging", "prod-logging");
+		double off = measure("off", "default",
+				"--logging.level.root=OFF", "--spring.jpa.show-sql=false", "--app.logging.request-events.enabled=false");
+		log.info("POST /api/orders: show-sql {} req/s, prod-logging {} req/s, logging off {} req/s",
+				Math.round(sqlLogging), Math.round(prodLogging), Math.round(off));
+
+		List<String> events = Files.readAllLines(logDir.resolve("prod-logging.log")).stream()
+				.filter(line -> line.startsWith(EVENT_MARKER))
+				.toList();
+		long rejected = events.stream().filter(line -> line.contains("\"status\":409")).count();
+		int duplicates = THREADS * (WARMUP_PER_THREAD + REQUESTS_PER_THREAD) / DUPLICATE_EVERY;
+		assertThat(events.size() - rejected).isGreaterThanOrEqualTo(THREADS * (WARMUP_PER_THREAD + REQUESTS_PER_THREAD) - duplicates);
+		assertThat(rejected).isPositive().isLessThan(duplicates);
+		assertThat(Files.readString(logDir.resolve("off.log"))).doesNotContain(EVENT_MARKER);
+	}
+
+	private double measure(String name, String profile, String... extraArgs) throws Exception {
+		int port = freePort();
+		String java = ProcessHandle.current().info().command().orElse("java");
+		List<String> command = new ArrayList<>(List.of(java, "-cp", System.getProperty("java.class.path"),
+				TestTaskApplication.class.getName(),
+				"--spring.profiles.active=" + profile,
+				"--server.port=" + port,
+				"--app.processing.time=virtual",
+				"--app.processing.settle-ms=0"));
+		command.addAll(List.of(extraArgs));
+		Process server = new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(logDir.resolve(name + ".log").toFile())
+				.start();
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			String base = "http://localhost:" + port;
+			awaitStarted(server, base, name);
+			long[][] pairs = new long[THREADS][];
+			for (int t = 0; t < THREADS; t++) {
+				pairs[t] = new long[]{createClient(base, name + "-a-" + t), createClient(base, name + "-b-" + t)};
+			}
+
+			run(pool, base, pairs, "warm-up", WARMUP_PER_THREAD);
+			long t0 = System.nanoTime();
+			int sent = run(pool, base, pairs, "measured", REQUESTS_PER_THREAD);
+			return sent * 1e9 / (System.nanoTime() - t0);
+		} finally {
+			pool.shutdownNow();
+			server.destroy();
+			server.waitFor(30, TimeUnit.SECONDS);
+		}
+	}
+
+	private int run(ExecutorService pool, String base, long[][] pairs, String phase, int perThread) throws Exception {
+		AtomicInteger sent = new AtomicInteger();
+		List<Future<?>> futures = new ArrayList<>();
+		for (long[] pair : pairs) {
+			futures.add(pool.submit(() -> {
+				for (int i = 0; i < perThread; i++) {
+					boolean duplicate = i % DUPLICATE_EVERY == DUPLICATE_EVERY - 1;
+					// Поставщик и потребитель чередуются: баланс не уходит к лимиту; дубликат — в сторону первого заказа
+					boolean forward = duplicate || i % 2 == 0;
+					String title = duplicate ? phase + " 0" : phase + " " + i;
+					int status = createOrder(base, forward ? pair[0] : pair[1], forward ? pair[1] : pair[0], title);
+					assertThat(status).isEqualTo(duplicate ? 409 : 201);
+					sent.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		return sent.get();
+	}
+
+	private void awaitStarted(Process server, String base, String name) throws Exception {
+		HttpRequest probe = HttpRequest.newBuilder(URI.create(base + "/api/clients/0")).GET().build();
+		long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!server.isAlive()) {
+				fail("server exited with " + server.exitValue() + ", see " + logDir.resolve(name + ".log"));
+			}
+			try {
+				http.send(probe, HttpResponse.BodyHandlers.discarding());
+				return;
+			} catch (IOException notListeningYet) {
+				Thread.sleep(200);
+			}
+		}
+		fail("server did not start within " + STARTUP_TIMEOUT);
+	}
+
+	private long createClient(String base, String name) throws Exception {
+		HttpResponse<String> response = post(base + "/api/clients", Map.of("name", name, "email", name + "@example.com"));
+		assertThat(response.statusCode()).isEqualTo(201);
+		return objectMapper.readTree(response.body()).get("id").asLong();
+	}
+
+	private int createOrder(String base, long supplierId, long consumerId, String title) throws Exception {
+		return post(base + "/api/orders", Map.of("title", title, "supplierId", supplierId, "consumerId", consumerId,
+				"price", "1.00")).statusCode();
+	}
+
+	private HttpResponse<String> post(String url, Map<String, Object> body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+				.build();
+		return http.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.dto.CreateOrderRequest;
+import com.example.demo.dto.InvariantReportDto;
+import com.example.demo.exception.DomainException;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.InvariantVerifier;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.example.demo.ApplicationTestSupport.client;
+import static com.example.demo.ApplicationTestSupport.isolatedDatabaseUrl;
+import static com.example.demo.ApplicationTestSupport.order;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Несколько экземпляров приложения (отдельные Spring-контексты) на одной БД: кредитный лимит
+ * и бизнес-ключ держатся блокировками и ограничениями БД, а не памятью экземпляра.
+ * Пишет в лог пропускную способность для 1..3 экземпляров; нарушений инвариантов быть не должно.
+ */
+class MultiInstanceOrderTest {
+
+	private static final Logger log = LoggerFactory.getLogger(MultiInstanceOrderTest.class);
+
+	private static final int CLIENTS = 8;
+	private static final int THREADS = 32;
+	private static final int ORDERS = 6_000;
+	private static final int TITLES = 50;
+
+	@Test
+	void keepsCreditLimitAndBusinessKeyAcrossInstances() throws Exception {
+		for (int instances = 1; instances <= 3; instances++) {
+			run(instances);
+		}
+	}
+
+	private void run(int instances) throws Exception {
+		String url = isolatedDatabaseUrl() + ";LOCK_TIMEOUT=10000";
+		List<ConfigurableApplicationContext> contexts = new ArrayList<>();
+		try {
+			for (int i = 0; i < instances; i++) {
+				contexts.add(start(url));
+			}
+			List<Long> ids = createClients(contexts.get(0).getBean(ClientService.class));
+
+			Map<ErrorCode, Integer> outcomes = new EnumMap<>(ErrorCode.class);
+			int created = 0;
+			ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+			long start = System.nanoTime();
+			try {
+				List<Future<ErrorCode>> results = new ArrayList<>(ORDERS);
+				for (int n = 0; n < ORDERS; n++) {
+					OrderService orders = contexts.get(n % instances).getBean(OrderService.class);
+					results.add(pool.submit(() -> place(orders, ids)));
+				}
+				for (Future<ErrorCode> result : results) {
+					ErrorCode code = result.get();
+					if (code == null) {
+						created++;
+					} else {
+						outcomes.merge(code, 1, Integer::sum);
+					}
+				}
+			} finally {
+				pool.shutdown();
+			}
+			double seconds = (System.nanoTime() - start) / 1e9;
+			log.info("instances={} orders={} created={} rejected={} throughput={}/s",
+					instances, ORDERS, created, outcomes, Math.round(ORDERS / seconds));
+
+			InvariantReportDto report = contexts.get(instances - 1).getBean(InvariantVerifier.class).verify();
+			assertThat(report.getViolations()).isEmpty();
+			assertThat(report.isOk()).isTrue();
+			assertThat(created).isPositive();
+			assertThat(outcomes).containsKeys(ErrorCode.DUPLICATE_ORDER, ErrorCode.CREDIT_LIMIT_EXCEEDED);
+			assertThat(outcomes.keySet()).containsOnly(ErrorCode.DUPLICATE_ORDER, ErrorCode.CREDIT_LIMIT_EXCEEDED);
+		} finally {
+			contexts.forEach(ConfigurableApplicationContext::close);
+		}
+	}
+
+	private static ConfigurableApplicationContext start(String url) {
+		return new SpringApplicationBuilder(TestTaskApplication.class)
+				.profiles("test")
+				.properties(
+						"server.port=0",
+						"spring.datasource.url=" + url,
+						"app.datasource.read.url=" + url)
+				.run();
+	}
+
+	private static List<Long> createClients(ClientService clients) {
+		List<Long> ids = new ArrayList<>(CLIENTS);
+		for (int i = 0; i < CLIENTS; i++) {
+			ClientDto dto = clients.create(client("client-" + i));
+			ids.add(dto.getId());
+		}
+		return ids;
+	}
+
+	/**
+	 * Случайная пара клиентов и название из небольшого набора: часть заказов — дубликаты,
+	 * крупные цены быстро упираются в кредитный лимит. Возвращает код отказа или null.
+	 */
+	private static ErrorCode place(OrderService orders, List<Long> ids) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		int supplier = random.nextInt(ids.size());
+		int consumer = (supplier + 1 + random.nextInt(ids.size() - 1)) % ids.size();
+		CreateOrderRequest request = order(ids.get(supplier), ids.get(consumer),
+				"order-" + random.nextInt(TITLES), BigDecimal.valueOf(50 + random.nextInt(100)));
+		try {
+			orders.create(request, order -> { });
+			return null;
+		} catch (DomainException e) {
+			return e.getCode();
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.dto.OrderDto;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Обращения к БД на один заказ: commit-фаза — блокировка обоих клиентов одним запросом
+ * и одна условная вставка. Счётчики берутся из статистики запросов H2, в лог пишутся
+ * число запросов на заказ и медиана/p99 создания заказа (виртуальное время, без ожидания).
+ */
+@SpringBootTest(properties = "app.processing.settle-ms=0")
+class OrderCommitRoundTripsTest extends ApplicationTestSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderCommitRoundTripsTest.class);
+
+	private static final int WARMUP = 200;
+	private static final int ORDERS = 1_000;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void commitPhaseTakesTwoStatementsPerOrder() {
+		ClientDto a = clientService.create(client("round-trips-a"));
+		ClientDto b = clientService.create(client("round-trips-b"));
+		for (int i = 0; i < WARMUP; i++) {
+			create(a, b, "warmup " + i, i);
+		}
+
+		jdbcTemplate.execute("set query_statistics true");
+		long[] nanos = new long[ORDERS];
+		OrderDto last = null;
+		for (int i = 0; i < ORDERS; i++) {
+			long t0 = System.nanoTime();
+			last = create(a, b, "measured " + i, i);
+			nanos[i] = System.nanoTime() - t0;
+		}
+		long locks = executions("%for update%");
+		long inserts = executions("insert into orders%");
+		long total = executions("%");
+		jdbcTemplate.execute("set query_statistics false");
+
+		Arrays.sort(nanos);
+		log.info("{} orders: {} statements per order ({} in commit phase), create median={} us, p99={} us",
+				ORDERS, (double) total / ORDERS, (double) (locks + inserts) / ORDERS,
+				nanos[ORDERS / 2] / 1_000, nanos[ORDERS * 99 / 100] / 1_000);
+
+		assertThat(locks).isEqualTo(ORDERS);
+		assertThat(inserts).isEqualTo(ORDERS);
+		// Аудит по настенным часам, обработка — по виртуальным
+		assertThat(Duration.between(last.getCreatedAt(), LocalDateTime.now()).abs()).isLessThan(Duration.ofMinutes(1));
+		assertThat(last.getFinishedAt()).isAfter(last.getStartedAt());
+	}
+
+	private OrderDto create(ClientDto a, ClientDto b, String title, int i) {
+		// Направление чередуется, баланс остаётся в пределах кредитного лимита
+		boolean forward = i % 2 == 0;
+		return orderService.create(order(forward ? a.getId() : b.getId(), forward ? b.getId() : a.getId(),
+				title, BigDecimal.ONE), o -> {
+		});
+	}
+
+	private long executions(String sqlPattern) {
+		return jdbcTemplate.queryForObject("""
+				select coalesce(sum(execution_count), 0) from information_schema.query_statistics
+				where lower(sql_statement) like ? and lower(sql_statement) not like '%query_statistics%'
+				""", Long.class, sqlPattern);
+	}
+}
@@ -0,0 +1,120 @@
+package com.example.demo;
+
+import com.example.demo.dto.ArchiveResultDto;
+import com.example.demo.dto.ClientDto;
+import com.example.demo.repository.OrderJdbcRepository;
+import com.example.demo.repository.OrderJdbcRepository.OrderRow;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.OrderArchiver;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Горячий путь (создание заказа и прибыль клиента) при растущей истории: старые заказы
+ * уходят в архив, в orders остаются только свежие, поэтому задержка не должна расти
+ * вместе с историей. Пишет в лог медиану и p99 на каждом шаге; проверяет размеры таблиц
+ * и то, что архивные суммы по-прежнему входят в прибыль.
+ */
+@SpringBootTest(properties = {
+		"app.processing.settle-ms=0",
+		"app.orders.archive.batch-size=10000"
+})
+class OrderHistoryGrowthTest extends ApplicationTestSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderHistoryGrowthTest.class);
+
+	private static final int[] HISTORY_STEPS = {0, 100_000, 200_000, 400_000};
+	private static final int HOT_OPS = 300;
+	private static final int INSERT_BATCH = 10_000;
+	// Выше идентификаторов, которые identity выдаст горячим заказам теста
+	private static final long HISTORY_FIRST_ID = 10_000_000L;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderJdbcRepository orderJdbcRepository;
+
+	@Autowired
+	private OrderArchiver orderArchiver;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void hotPathLatencyDoesNotGrowWithArchivedHistory() {
+		ClientDto historySupplier = clientService.create(client("history-supplier"));
+		ClientDto historyConsumer = clientService.create(client("history-consumer"));
+		ClientDto a = clientService.create(client("hot-a"));
+		ClientDto b = clientService.create(client("hot-b"));
+
+		long history = 0;
+		long hotOrders = 0;
+		for (int target : HISTORY_STEPS) {
+			insertHistory(historySupplier, historyConsumer, history, target - history);
+			history = target;
+			ArchiveResultDto archived = orderArchiver.archive();
+
+			long[] nanos = new long[HOT_OPS];
+			for (int i = 0; i < HOT_OPS; i++) {
+				// Направление чередуется, баланс остаётся в пределах кредитного лимита
+				boolean forward = i % 2 == 0;
+				long t0 = System.nanoTime();
+				orderService.create(order(forward ? a.getId() : b.getId(), forward ? b.getId() : a.getId(),
+						"hot " + target + " " + i, BigDecimal.ONE), o -> {
+				});
+				clientService.getProfit(a.getId());
+				nanos[i] = System.nanoTime() - t0;
+			}
+			hotOrders += HOT_OPS;
+			Arrays.sort(nanos);
+			log.info("history={} archived now={}: create+profit median={} us, p99={} us",
+					target, archived.getArchived(), nanos[HOT_OPS / 2] / 1_000, nanos[HOT_OPS * 99 / 100] / 1_000);
+
+			// Горячая таблица не растёт с историей, а свёрнутые суммы видны в прибыли
+			assertThat(orderRepository.count()).isEqualTo(hotOrders);
+			assertThat(jdbcTemplate.queryForObject("select count(*) from orders_archive", Long.class))
+					.isEqualTo(history);
+			assertThat(clientService.getProfit(historySupplier.getId()).getProfit())
+					.isEqualByComparingTo(BigDecimal.valueOf(history));
+			assertThat(clientService.getProfit(historyConsumer.getId()).getProfit())
+					.isEqualByComparingTo(BigDecimal.valueOf(-history));
+		}
+	}
+
+	private void insertHistory(ClientDto supplier, ClientDto consumer, long from, long count) {
+		LocalDateTime finished = LocalDateTime.now().minusDays(90);
+		List<OrderRow> batch = new ArrayList<>(INSERT_BATCH);
+		for (long i = from; i < from + count; i++) {
+			batch.add(new OrderRow(HISTORY_FIRST_ID + i, "history " + i, supplier.getId(), consumer.getId(),
+					BigDecimal.ONE, finished.minusMinutes(1), finished, finished));
+			if (batch.size() == INSERT_BATCH) {
+				orderJdbcRepository.insertBatch(batch, finished);
+				batch.clear();
+			}
+		}
+		if (!batch.isEmpty()) {
+			orderJdbcRepository.insertBatch(batch, finished);
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.dto.CreateOrderRequest;
+import com.example.demo.dto.OrderDto;
+import com.example.demo.processing.ProcessingExecutors;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 100k заказов одновременно «в обработке»: ожидание держит только запись в очереди таймера,
+ * а не поток. Время здесь системное (виртуальные часы отпускают дедлайны, как только перестают
+ * приходить новые, и заказы не копятся),
+ * задержка фиксированная и длинная; в конце все заказы отменяются, поэтому тест быстрый.
+ */
+@SpringBootTest(properties = {
+		"app.processing.time=system",
+		"app.processing.distribution=fixed",
+		"app.processing.mean-ms=600000"
+})
+class OrderInFlightTest extends ApplicationTestSupport {
+
+	private static final int IN_FLIGHT = 100_000;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private ProcessingExecutors processingExecutors;
+
+	@Test
+	void holdsHundredThousandPendingOrdersOnAHandfulOfThreads() {
+		ClientDto supplier = clientService.create(client("inflight-supplier"));
+		ClientDto consumer = clientService.create(client("inflight-consumer"));
+		ScheduledThreadPoolExecutor timer = (ScheduledThreadPoolExecutor) processingExecutors.timer();
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+		// Первый заказ поднимает таймер и пул commit-фазы
+		List<CompletableFuture<OrderDto>> pending = new ArrayList<>(IN_FLIGHT);
+		pending.add(orderService.createAsync(inFlightOrder(supplier, consumer, 0)));
+		int threadsBefore = threads.getThreadCount();
+
+		for (int i = 1; i < IN_FLIGHT; i++) {
+			pending.add(orderService.createAsync(inFlightOrder(supplier, consumer, i)));
+		}
+
+		// Каждый ожидающий заказ — ровно одна запись таймера, потоков не прибавилось
+		assertThat(pending).noneMatch(CompletableFuture::isDone);
+		assertThat(timer.getQueue()).hasSize(IN_FLIGHT);
+		assertThat(threads.getThreadCount() - threadsBefore).isLessThanOrEqualTo(4);
+
+		// Отмена снимает записи таймера сразу, а не в их срок, и заказ не создаётся
+		pending.forEach(f -> f.cancel(false));
+		assertThat(pending).allMatch(CompletableFuture::isCancelled);
+		assertThat(timer.getQueue()).isEmpty();
+		assertThat(orderRepository.count()).isZero();
+	}
+
+	private static CreateOrderRequest inFlightOrder(ClientDto supplier, ClientDto consumer, int i) {
+		return order(supplier.getId(), consumer.getId(), "in-flight " + i, BigDecimal.ONE);
+	}
+}
@@ -0,0 +1,174 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.repository.OrderJdbcRepository;
+import com.example.demo.repository.OrderJdbcRepository.OrderRow;
+import com.example.demo.service.ClientService;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.demo.ApplicationTestSupport.client;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * GET /api/orders на миллионе заказов, сервер — отдельная JVM с маленькой фиксированной кучей.
+ * Миллион OrderDto (или весь JSON-ответ) в такую кучу не помещается: если бы ответ копился
+ * в памяти, сервер упал бы с OutOfMemoryError и ответ оборвался.
+ * Заказы вставляет тестовый контекст в файловую H2 с AUTO_SERVER, сервер читает её по TCP.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@DirtiesContext
+class OrderListStreamingTest {
+
+	private static final int ORDERS = 1_000_000;
+	private static final int BATCH = 10_000;
+	private static final String SERVER_HEAP = "-Xmx128m";
+	private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+	private static final Path DATA_DIR = createDataDir();
+	private static final String DB_URL =
+			"jdbc:h2:file:" + DATA_DIR.resolve("orders").toAbsolutePath() + ";AUTO_SERVER=TRUE;MODE=PostgreSQL";
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private OrderJdbcRepository orderJdbcRepository;
+
+	@DynamicPropertySource
+	static void fileDatabase(DynamicPropertyRegistry registry) {
+		registry.add("spring.datasource.url", () -> DB_URL);
+		registry.add("app.datasource.read.url", () -> DB_URL);
+	}
+
+	@Test
+	void streamsMillionOrdersFromSmallFixedHeap() throws Exception {
+		ClientDto supplier = clientService.create(client("streaming-supplier"));
+		ClientDto consumer = clientService.create(client("streaming-consumer"));
+		insertOrders(supplier.getId(), consumer.getId());
+
+		int port = freePort();
+		Process server = startServer(port);
+		try {
+			HttpClient http = HttpClient.newHttpClient();
+			awaitStarted(server, http, port);
+
+			HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/orders")).GET().build();
+			HttpResponse<InputStream> response = http.send(request, HttpResponse.BodyHandlers.ofInputStream());
+			assertThat(response.statusCode()).isEqualTo(200);
+
+			int count = 0;
+			try (JsonParser parser = new JsonFactory().createParser(response.body())) {
+				assertThat(parser.nextToken()).isEqualTo(JsonToken.START_ARRAY);
+				JsonToken token;
+				while ((token = parser.nextToken()) == JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					count++;
+				}
+				// Оборванный ответ (OOM на сервере) не дошёл бы до конца массива
+				assertThat(token).isEqualTo(JsonToken.END_ARRAY);
+			}
+			assertThat(count).isEqualTo(ORDERS);
+			assertThat(server.isAlive()).as("server survived the response").isTrue();
+		} finally {
+			server.destroy();
+			server.waitFor(30, TimeUnit.SECONDS);
+		}
+	}
+
+	private void insertOrders(long supplierId, long consumerId) {
+		LocalDateTime now = LocalDateTime.now();
+		List<OrderRow> rows = new ArrayList<>(BATCH);
+		for (long id = 1; id <= ORDERS; id++) {
+			rows.add(new OrderRow(id, "streamed " + id, supplierId, consumerId, BigDecimal.ONE,
+					now.minusMinutes(2), now.minusMinutes(1), now.minusMinutes(2)));
+			if (rows.size() == BATCH) {
+				orderJdbcRepository.insertBatch(rows, now);
+				rows.clear();
+			}
+		}
+		orderJdbcRepository.restartIdentityAfterMaxId();
+	}
+
+	private static Process startServer(int port) throws IOException {
+		String java = ProcessHandle.current().info().command().orElse("java");
+		List<String> command = List.of(java, SERVER_HEAP, "-XX:+ExitOnOutOfMemoryError",
+				"-cp", System.getProperty("java.class.path"),
+				TestTaskApplication.class.getName(),
+				"--spring.profiles.active=test",
+				"--server.port=" + port,
+				"--spring.datasource.url=" + DB_URL,
+				"--app.datasource.read.url=" + DB_URL);
+		return new ProcessBuilder(command)
+				.redirectErrorStream(true)
+				.redirectOutput(DATA_DIR.resolve("server.log").toFile())
+				.start();
+	}
+
+	private static void awaitStarted(Process server, HttpClient http, int port) throws Exception {
+		HttpRequest probe = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/clients/0")).GET().build();
+		long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!server.isAlive()) {
+				fail("server exited with " + server.exitValue() + ", see " + DATA_DIR.resolve("server.log"));
+			}
+			try {
+				http.send(probe, HttpResponse.BodyHandlers.discarding());
+				return;
+			} catch (IOException notListeningYet) {
+				Thread.sleep(500);
+			}
+		}
+		fail("server did not start within " + STARTUP_TIMEOUT);
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private static Path createDataDir() {
+		try {
+			Path dir = Files.createTempDirectory("orders-streaming");
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					FileSystemUtils.deleteRecursively(dir);
+				} catch (IOException ignored) {
+					// временный каталог, удалится при очистке tmp
+				}
+			}));
+			return dir;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
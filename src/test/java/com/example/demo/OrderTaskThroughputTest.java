@@ -0,0 +1,107 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.model.OrderTaskStatus;
+import com.example.demo.repository.OrderRepository;
+import com.example.demo.repository.OrderTaskRepository;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.OrderService;
+import com.example.demo.service.OrderTaskQueue;
+import com.example.demo.service.OrderTaskService;
+import com.example.demo.service.OrderTaskWorkerPool;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Пропускная способность очереди заявок в зависимости от числа воркеров. Обработка — реальное
+ * ожидание фиксированной длины, поэтому воркер занят ею, а не БД, и пропускная способность
+ * должна расти с числом воркеров. Пишет в лог заказов/с на каждом шаге.
+ */
+@SpringBootTest(properties = {
+		"app.processing.time=system",
+		"app.processing.distribution=fixed",
+		"app.processing.mean-ms=20"
+})
+class OrderTaskThroughputTest extends ApplicationTestSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(OrderTaskThroughputTest.class);
+
+	private static final int[] WORKERS = {1, 2, 4, 8};
+	private static final int TASKS_PER_STEP = 200;
+	private static final int CLIENTS = 16;
+
+	@Autowired
+	private OrderTaskService orderTaskService;
+
+	@Autowired
+	private OrderTaskQueue orderTaskQueue;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private OrderRepository orderRepository;
+
+	@Autowired
+	private OrderTaskRepository orderTaskRepository;
+
+	@Test
+	void throughputGrowsWithWorkerCount() throws InterruptedException {
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			ids.add(clientService.create(client("task-client-" + i)).getId());
+		}
+
+		double[] perSecond = new double[WORKERS.length];
+		long submitted = 0;
+		for (int step = 0; step < WORKERS.length; step++) {
+			for (int i = 0; i < TASKS_PER_STEP; i++) {
+				// Каждый клиент поставщик и потребитель поровну: баланс не уходит к лимиту
+				Long supplier = ids.get(i % CLIENTS);
+				Long consumer = ids.get((i + 1) % CLIENTS);
+				orderTaskService.submit(order(supplier, consumer, "task " + step + " " + i, BigDecimal.ONE));
+			}
+			submitted += TASKS_PER_STEP;
+
+			OrderTaskWorkerPool pool = new OrderTaskWorkerPool(orderTaskQueue, orderService, WORKERS[step], 5, 60_000);
+			long t0 = System.nanoTime();
+			pool.start();
+			try {
+				awaitOrders(submitted);
+			} finally {
+				pool.stop();
+			}
+			long elapsedNanos = System.nanoTime() - t0;
+			perSecond[step] = TASKS_PER_STEP * 1e9 / elapsedNanos;
+			log.info("{} workers: {} tasks in {} ms, {} orders/s", WORKERS[step], TASKS_PER_STEP,
+					TimeUnit.NANOSECONDS.toMillis(elapsedNanos), Math.round(perSecond[step]));
+		}
+
+		assertThat(orderTaskRepository.findIdsByStatus(OrderTaskStatus.FAILED, PageRequest.of(0, 1))).isEmpty();
+		assertThat(orderTaskRepository.findIdsByStatus(OrderTaskStatus.PENDING, PageRequest.of(0, 1))).isEmpty();
+		// Восемь воркеров при обработке 20 мс: запас в 4 раза от линейного роста
+		assertThat(perSecond[WORKERS.length - 1]).isGreaterThan(2 * perSecond[0]);
+	}
+
+	private void awaitOrders(long expected) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+		while (orderRepository.count() < expected) {
+			assertThat(System.nanoTime() - deadline).isNegative();
+			Thread.sleep(5);
+		}
+	}
+}
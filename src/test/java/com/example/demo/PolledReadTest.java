@@ -0,0 +1,101 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.dto.OrderDto;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Опрос GET /api/clients/{id}, /profit и /api/orders/{id}, как это делают UI: с If-None-Match
+ * ответ — 304 без тела, ETag сверяется до маппинга в DTO и сериализации. Пишет в лог запросов/с
+ * для безусловных 200 и условных 304 по каждому адресу; проверяет, что изменение даёт новый ETag.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "app.processing.settle-ms=0")
+class PolledReadTest extends ApplicationTestSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(PolledReadTest.class);
+
+	private static final int WARMUP = 500;
+	private static final int POLLS = 3_000;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private OrderService orderService;
+
+	private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@Test
+	void unchangedResourcesAreAnsweredWith304() throws Exception {
+		ClientDto supplier = clientService.create(client("polled-supplier"));
+		ClientDto consumer = clientService.create(client("polled-consumer"));
+		OrderDto order = orderService.create(order(supplier.getId(), consumer.getId(), "polled", BigDecimal.TEN), o -> {
+		});
+
+		List<String> paths = List.of(
+				"/api/clients/" + supplier.getId(),
+				"/api/clients/" + supplier.getId() + "/profit",
+				"/api/orders/" + order.getId());
+		for (String path : paths) {
+			HttpResponse<byte[]> first = get(path, null);
+			assertThat(first.statusCode()).isEqualTo(200);
+			String etag = first.headers().firstValue("ETag").orElseThrow();
+
+			double full = pollsPerSecond(path, null, 200);
+			double conditional = pollsPerSecond(path, etag, 304);
+			log.info("{}: {} req/s with 200, {} req/s with 304", path, Math.round(full), Math.round(conditional));
+		}
+
+		// Новый заказ меняет прибыль поставщика: прежний ETag больше не совпадает
+		String profitPath = "/api/clients/" + supplier.getId() + "/profit";
+		String before = get(profitPath, null).headers().firstValue("ETag").orElseThrow();
+		orderService.create(order(supplier.getId(), consumer.getId(), "polled again", BigDecimal.ONE), o -> {
+		});
+		HttpResponse<byte[]> changed = get(profitPath, before);
+		assertThat(changed.statusCode()).isEqualTo(200);
+		assertThat(changed.headers().firstValue("ETag")).isPresent().get().isNotEqualTo(before);
+	}
+
+	private double pollsPerSecond(String path, String etag, int expectedStatus) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			get(path, etag);
+		}
+		long t0 = System.nanoTime();
+		for (int i = 0; i < POLLS; i++) {
+			HttpResponse<byte[]> response = get(path, etag);
+			assertThat(response.statusCode()).isEqualTo(expectedStatus);
+			if (expectedStatus == 304) {
+				assertThat(response.body()).isEmpty();
+			}
+		}
+		return POLLS * 1e9 / (System.nanoTime() - t0);
+	}
+
+	private HttpResponse<byte[]> get(String path, String etag) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+		if (etag != null) {
+			request.header("If-None-Match", etag);
+		}
+		return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+}
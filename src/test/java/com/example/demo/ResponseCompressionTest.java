@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import com.example.demo.dto.ClientDto;
+import com.example.demo.service.ClientService;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Байты на проводе и задержка списков /api/orders и /api/clients с gzip и без. JDK HttpClient
+ * сам не распаковывает, поэтому длина тела — это то, что пришло по сети (без chunked-рамок).
+ * В лог пишутся байты и медиана/p99 задержки для обоих вариантов; проверяется, что сжатое тело
+ * меньше и распаковывается в тот же JSON.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "app.processing.settle-ms=0")
+class ResponseCompressionTest extends ApplicationTestSupport {
+
+	private static final Logger log = LoggerFactory.getLogger(ResponseCompressionTest.class);
+
+	private static final int CLIENTS = 50;
+	private static final int ORDERS = 500;
+	private static final int WARMUP = 50;
+	private static final int REQUESTS = 200;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private ClientService clientService;
+
+	@Autowired
+	private OrderService orderService;
+
+	private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@Test
+	void listsAreSmallerOnTheWireWithGzip() throws Exception {
+		List<ClientDto> clients = new ArrayList<>();
+		for (int i = 0; i < CLIENTS; i++) {
+			clients.add(clientService.create(client("gzip-client-" + i)));
+		}
+		for (int i = 0; i < ORDERS; i++) {
+			// Поставщик и потребитель по кругу: балансы не уходят к лимиту
+			ClientDto supplier = clients.get(i % CLIENTS);
+			ClientDto consumer = clients.get((i + 1) % CLIENTS);
+			orderService.create(order(supplier.getId(), consumer.getId(), "gzip order " + i, BigDecimal.ONE), o -> {
+			});
+		}
+
+		for (String path : List.of("/api/orders", "/api/clients")) {
+			HttpResponse<byte[]> identity = get(path, false);
+			HttpResponse<byte[]> gzip = get(path, true);
+			assertThat(identity.headers().firstValue("Content-Encoding")).isEmpty();
+			assertThat(gzip.headers().firstValue("Content-Encoding")).contains("gzip");
+			assertThat(gunzip(gzip.body())).isEqualTo(identity.body());
+			assertThat(gzip.body().length).isLessThan(identity.body().length);
+
+			long[] identityNanos = latencies(path, false);
+			long[] gzipNanos = latencies(path, true);
+			log.info("{}: identity {} bytes, median={} us, p99={} us; gzip {} bytes, median={} us, p99={} us",
+					path, identity.body().length, identityNanos[REQUESTS / 2] / 1_000, identityNanos[REQUESTS * 99 / 100] / 1_000,
+					gzip.body().length, gzipNanos[REQUESTS / 2] / 1_000, gzipNanos[REQUESTS * 99 / 100] / 1_000);
+		}
+	}
+
+	private long[] latencies(String path, boolean gzip) throws Exception {
+		for (int i = 0; i < WARMUP; i++) {
+			get(path, gzip);
+		}
+		long[] nanos = new long[REQUESTS];
+		for (int i = 0; i < REQUESTS; i++) {
+			long t0 = System.nanoTime();
+			assertThat(get(path, gzip).statusCode()).isEqualTo(200);
+			nanos[i] = System.nanoTime() - t0;
+		}
+		Arrays.sort(nanos);
+		return nanos;
+	}
+
+	private HttpResponse<byte[]> get(String path, boolean gzip) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET();
+		if (gzip) {
+			request.header("Accept-Encoding", "gzip");
+		}
+		return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+	}
+
+	private static byte[] gunzip(byte[] body) throws Exception {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return in.readAllBytes();
+		}
+	}
+}
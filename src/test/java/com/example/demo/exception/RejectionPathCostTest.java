@@ -0,0 +1,109 @@
+package com.example.demo.exception;
+
+import com.example.demo.dto.ApiErrorDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Стоимость отказа (дубликат/лимит) от броска до JSON-тела: stackless DomainException с ApiErrorDto
+ * против исключения со стеком и тела-LinkedHashMap с OffsetDateTime.toString(), как было раньше.
+ * Бросок идёт с глубины {@value #STACK_DEPTH} кадров — примерно столько под контроллером в MVC.
+ * В лог пишутся нс/оп и байт/оп для обоих путей.
+ */
+class RejectionPathCostTest {
+
+	private static final Logger log = LoggerFactory.getLogger(RejectionPathCostTest.class);
+
+	private static final int STACK_DEPTH = 100;
+	private static final int WARMUP = 20_000;
+	private static final int OPS = 100_000;
+	private static final String PATH = "/api/orders";
+	private static final String MESSAGE = "Order with the same title/supplier/consumer already exists";
+
+	private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+	@Test
+	void stacklessRejectionIsCheaperThanFullStackOne() throws Exception {
+		assertThat(new ConflictException(ErrorCode.DUPLICATE_ORDER, MESSAGE).getStackTrace()).isEmpty();
+
+		double[] stackless = measure("stackless + ApiErrorDto", this::stacklessRejection);
+		double[] fullStack = measure("full stack + LinkedHashMap", this::fullStackRejection);
+
+		assertThat(stackless[1]).isLessThan(fullStack[1]);
+	}
+
+	private int stacklessRejection() throws JsonProcessingException {
+		try {
+			throwFrom(STACK_DEPTH, () -> new ConflictException(ErrorCode.DUPLICATE_ORDER, MESSAGE));
+			return 0;
+		} catch (ConflictException ex) {
+			HttpStatus status = HttpStatus.CONFLICT;
+			ApiErrorDto body = new ApiErrorDto(Instant.now(), status.value(), status.getReasonPhrase(),
+					ex.getCode().name(), ex.getMessage(), PATH);
+			return objectMapper.writeValueAsBytes(body).length;
+		}
+	}
+
+	private int fullStackRejection() throws JsonProcessingException {
+		try {
+			throwFrom(STACK_DEPTH, () -> new IllegalStateException(MESSAGE));
+			return 0;
+		} catch (IllegalStateException ex) {
+			HttpStatus status = HttpStatus.CONFLICT;
+			Map<String, Object> body = new LinkedHashMap<>();
+			body.put("timestamp", OffsetDateTime.now().toString());
+			body.put("status", status.value());
+			body.put("error", status.getReasonPhrase());
+			body.put("code", ErrorCode.DUPLICATE_ORDER.name());
+			body.put("message", ex.getMessage());
+			body.put("path", PATH);
+			return objectMapper.writeValueAsBytes(body).length;
+		}
+	}
+
+	private interface Rejection {
+		int run() throws Exception;
+	}
+
+	private interface ExceptionFactory {
+		RuntimeException create();
+	}
+
+	private static void throwFrom(int depth, ExceptionFactory factory) {
+		if (depth == 0) {
+			throw factory.create();
+		}
+		throwFrom(depth - 1, factory);
+	}
+
+	// {нс/оп, байт/оп}
+	private static double[] measure(String name, Rejection rejection) throws Exception {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long sink = 0;
+		for (int i = 0; i < WARMUP; i++) {
+			sink += rejection.run();
+		}
+		long bytes0 = threads.getCurrentThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+		for (int i = 0; i < OPS; i++) {
+			sink += rejection.run();
+		}
+		double nanos = (double) (System.nanoTime() - t0) / OPS;
+		double bytes = (double) (threads.getCurrentThreadAllocatedBytes() - bytes0) / OPS;
+		log.info("{}: {} ns/op, {} bytes/op (body bytes {})", name, Math.round(nanos), Math.round(bytes),
+				sink / (WARMUP + OPS));
+		return new double[]{nanos, bytes};
+	}
+}
@@ -0,0 +1,105 @@
+package com.example.demo.model;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Аллокации на операцию в свёртке прибыли и проверке лимита: Money (long-центы) против BigDecimal.
+ * Байты считаются по потоку (com.sun.management.ThreadMXBean) после прогрева; в лог пишутся
+ * байт/оп и нс/оп, проверяется только то, что Money аллоцирует меньше.
+ */
+class MoneyAllocationTest {
+
+	private static final Logger log = LoggerFactory.getLogger(MoneyAllocationTest.class);
+
+	private static final int N = 1_000_000;
+	private static final int ROUNDS = 5;
+	private static final Money LIMIT = Money.ofUnits(-1000);
+	private static final BigDecimal LIMIT_DECIMAL = LIMIT.toBigDecimal();
+
+	private final long[] cents = new long[N];
+	private final Money[] money = new Money[N];
+	private final BigDecimal[] decimals = new BigDecimal[N];
+
+	MoneyAllocationTest() {
+		// Цены и знак как в журнале клиента: поставщик получает, потребитель платит
+		SplittableRandom random = new SplittableRandom(42);
+		for (int i = 0; i < N; i++) {
+			long c = random.nextLong(100, 500_001);
+			cents[i] = random.nextBoolean() ? c : -c;
+			money[i] = Money.ofCents(cents[i]);
+			decimals[i] = money[i].toBigDecimal();
+		}
+	}
+
+	@Test
+	void profitAggregationAllocatesLessWithMoney() {
+		double moneyBytes = bytesPerOp("profit/Money", () -> {
+			Money sum = Money.ZERO;
+			for (Money m : money) {
+				sum = sum.plus(m);
+			}
+			return sum.cents();
+		});
+		double decimalBytes = bytesPerOp("profit/BigDecimal", () -> {
+			BigDecimal sum = BigDecimal.ZERO.setScale(Money.SCALE);
+			for (BigDecimal d : decimals) {
+				sum = sum.add(d);
+			}
+			return sum.unscaledValue().longValue();
+		});
+		assertThat(moneyBytes).isLessThan(decimalBytes);
+	}
+
+	@Test
+	void creditCheckAllocatesLessWithMoney() {
+		Money balance = Money.ofUnits(-500);
+		BigDecimal balanceDecimal = balance.toBigDecimal();
+		double moneyBytes = bytesPerOp("credit/Money", () -> {
+			long rejected = 0;
+			for (Money price : money) {
+				if (balance.minus(price).isLessThan(LIMIT)) {
+					rejected++;
+				}
+			}
+			return rejected;
+		});
+		double decimalBytes = bytesPerOp("credit/BigDecimal", () -> {
+			long rejected = 0;
+			for (BigDecimal price : decimals) {
+				if (balanceDecimal.subtract(price).compareTo(LIMIT_DECIMAL) < 0) {
+					rejected++;
+				}
+			}
+			return rejected;
+		});
+		// Промежуточный Money JIT может убрать целиком (escape analysis), BigDecimal — не всегда
+		assertThat(moneyBytes).isLessThanOrEqualTo(decimalBytes);
+	}
+
+	private static double bytesPerOp(String name, LongSupplier loop) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		long sink = 0;
+		for (int i = 0; i < ROUNDS; i++) {
+			sink += loop.getAsLong();
+		}
+		long bytes0 = threads.getCurrentThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			sink += loop.getAsLong();
+		}
+		long nanos = System.nanoTime() - t0;
+		double bytes = (double) (threads.getCurrentThreadAllocatedBytes() - bytes0) / ((long) ROUNDS * N);
+		log.info("{}: {} bytes/op, {} ns/op (checksum {})", name, String.format("%.1f", bytes),
+				String.format("%.2f", (double) nanos / ((long) ROUNDS * N)), sink);
+		return bytes;
+	}
+}
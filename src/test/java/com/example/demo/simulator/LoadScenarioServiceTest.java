@@ -0,0 +1,72 @@
+package com.example.demo.simulator;
+
+import com.example.demo.dto.ScenarioRunDto;
+import com.example.demo.exception.ConflictException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ограничение одновременных прогонов и их остановка вместе с сервисом; HTTP-клиент подменён.
+ */
+class LoadScenarioServiceTest {
+
+	@TempDir
+	Path resultsDir;
+
+	@Test
+	void rejectsRunsBeyondTheLimitAndInterruptsThemOnShutdown() throws Exception {
+		ScenarioService http = mock(ScenarioService.class);
+		CountDownLatch entered = new CountDownLatch(1);
+		when(http.createClient(anyString(), anyString())).thenAnswer(invocation -> {
+			entered.countDown();
+			new CountDownLatch(1).await();
+			return null;
+		});
+		LoadScenarioService service = new LoadScenarioService(http, new ObjectMapper(), resultsDir.toString(), 1);
+
+		ScenarioRunDto first = service.startFanOut(2, 1, 1);
+		assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThatThrownBy(() -> service.startFanOut(2, 1, 1)).isInstanceOf(ConflictException.class);
+
+		service.shutdown();
+		ScenarioRunDto stopped = service.getRun(first.getId());
+		assertThat(stopped.getStatus()).isEqualTo(ScenarioRunDto.Status.FAILED);
+		assertThat(stopped.getError()).contains("InterruptedException");
+	}
+
+	@Test
+	void finishedRunFreesItsSlot() throws Exception {
+		ScenarioService http = mock(ScenarioService.class);
+		when(http.createClient(anyString(), anyString())).thenThrow(new IllegalStateException("server down"));
+		LoadScenarioService service = new LoadScenarioService(http, new ObjectMapper(), resultsDir.toString(), 1);
+		try {
+			ScenarioRunDto first = service.startFanOut(2, 1, 1);
+			awaitFinished(service, first.getId());
+
+			ScenarioRunDto second = service.startFanOut(2, 1, 1);
+			awaitFinished(service, second.getId());
+			assertThat(service.getRun(second.getId()).getError()).contains("server down");
+		} finally {
+			service.shutdown();
+		}
+	}
+
+	private static void awaitFinished(LoadScenarioService service, String id) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (service.getRun(id).getStatus() == ScenarioRunDto.Status.RUNNING) {
+			assertThat(System.nanoTime() - deadline).isNegative();
+			Thread.sleep(10);
+		}
+	}
+}